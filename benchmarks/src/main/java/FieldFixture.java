@@ -0,0 +1,91 @@
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+
+/**
+ * A seeded, populated field used by the neighbourhood benchmarks.
+ * The queries only read the field, so it never needs to be reset.
+ *
+ * @author Flavio Melinte Citea and Vakaris Paulavičius
+ * @version 1.0
+ */
+public class FieldFixture implements Function<String, IntSupplier>, Runnable
+{
+    // The seed of every benchmarked world.
+    private static final long SEED = 42;
+    // The number of locations queried per operation.
+    public static final int QUERIES = 1024;
+
+    // The populated animal field.
+    private Field field;
+    // The locations queried, chosen at random once.
+    private Location[] locations;
+    // Scratch space for the cell queries.
+    private int[] cells;
+
+    /**
+     * Create a square world of the given size.
+     * @param size The depth and width of the world.
+     */
+    public FieldFixture(int size)
+    {
+        field = new Simulator(size, size, true, SEED).getAnimalField();
+        locations = new Location[QUERIES];
+        StreamRandom rand = new StreamRandom(SEED);
+        for(int i = 0; i < QUERIES; i++) {
+            locations[i] = field.getLocation(rand.nextInt(size), rand.nextInt(size));
+        }
+        cells = new int[Field.MAX_ADJACENT];
+    }
+
+    /**
+     * Nothing to reset: the queries do not change the field.
+     */
+    public void run()
+    {
+    }
+
+    /**
+     * Return one of the measured operations. Each one runs QUERIES queries.
+     * @param operation The name of the operation.
+     * @return The operation. Its result should be consumed by the benchmark.
+     */
+    public IntSupplier apply(String operation)
+    {
+        switch(operation) {
+            case "adjacentLocations":
+                return () -> {
+                    int total = 0;
+                    for(Location location : locations) {
+                        total += field.adjacentLocations(location).size();
+                    }
+                    return total;
+                };
+            case "getFreeAdjacentLocations":
+                return () -> {
+                    int total = 0;
+                    for(Location location : locations) {
+                        total += field.getFreeAdjacentLocations(location).size();
+                    }
+                    return total;
+                };
+            case "adjacentCells":
+                return () -> {
+                    int total = 0;
+                    for(Location location : locations) {
+                        total += field.adjacentCells(location, cells);
+                    }
+                    return total;
+                };
+            case "freeAdjacentCells":
+                return () -> {
+                    int total = 0;
+                    for(Location location : locations) {
+                        total += field.freeAdjacentCells(location, cells);
+                    }
+                    return total;
+                };
+            default:
+                throw new IllegalArgumentException("Unknown operation: " + operation);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+import java.awt.Color;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+
+/**
+ * A seeded, headless simulation used by the benchmarks. Running it
+ * (as a Runnable) puts the world back into its initial state, so that
+ * every measurement starts from the same forest.
+ *
+ * The benchmarks themselves live in a named package, which cannot see
+ * the simulation classes, so they reach the operations through this
+ * fixture as plain IntSuppliers.
+ *
+ * @author Flavio Melinte Citea and Vakaris Paulavičius
+ * @version 1.0
+ */
+public class SimulatorFixture implements Function<String, IntSupplier>, Runnable
+{
+    // The seed of every benchmarked world.
+    private static final long SEED = 42;
+    // The number of steps of the runs shown to an observer.
+    private static final int OBSERVED_STEPS = 5;
+
+    // The simulation being measured.
+    private Simulator simulator;
+    // The same world shown to an observer after every step, in turn or pipelined, or null until measured.
+    private Simulator observed, pipelined;
+    // Animal.findFood, which is private.
+    private MethodHandle findFood;
+    // The depth and width of the world.
+    private int size;
+
+    /**
+     * Create a square world of the given size.
+     * @param size The depth and width of the world.
+     */
+    public SimulatorFixture(int size) throws ReflectiveOperationException
+    {
+        this.size = size;
+        simulator = new Simulator(size, size, true, SEED);
+        findFood = MethodHandles.privateLookupIn(Animal.class, MethodHandles.lookup())
+                .findVirtual(Animal.class, "findFood", MethodType.methodType(Location.class));
+    }
+
+    /**
+     * Put the world back into its initial, seeded state.
+     */
+    public void run()
+    {
+        simulator.reset();
+        if(observed != null) {
+            observed.reset();
+        }
+        if(pipelined != null) {
+            pipelined.reset();
+        }
+    }
+
+    /**
+     * Return one of the measured operations.
+     * @param operation The name of the operation.
+     * @return The operation. Its result should be consumed by the benchmark.
+     */
+    public IntSupplier apply(String operation)
+    {
+        switch(operation) {
+            case "simulateOneStep":
+                return () -> {
+                    simulator.simulateOneStep();
+                    return simulator.getStep();
+                };
+            case "populateField":
+                return () -> {
+                    simulator.reset();
+                    return simulator.getStep();
+                };
+            case "countFieldStats":
+                FieldStats stats = new FieldStats();
+                return () -> {
+                    stats.reset();
+                    return stats.isViable(simulator.getAnimalField()) ? 1 : 0;
+                };
+            case "findFood":
+                return this::findFoodForAll;
+            case "simulateObserved":
+                observed = createObserved(false);
+                return () -> {
+                    observed.simulate(OBSERVED_STEPS);
+                    return observed.getStep();
+                };
+            case "simulatePipelined":
+                pipelined = createObserved(true);
+                return () -> {
+                    pipelined.simulate(OBSERVED_STEPS);
+                    return pipelined.getStep();
+                };
+            default:
+                throw new IllegalArgumentException("Unknown operation: " + operation);
+        }
+    }
+
+    /**
+     * Create the world of this fixture, shown to a RasterObserver after every step.
+     * @param pipeline true to show the steps while the next ones are computed.
+     * @return The simulation.
+     */
+    private Simulator createObserved(boolean pipeline)
+    {
+        Simulator observedSimulator = new Simulator(size, size, true, SEED);
+        observedSimulator.setViabilityCheck(null);
+        observedSimulator.addObserver(new RasterObserver());
+        observedSimulator.setPipelined(pipeline);
+        return observedSimulator;
+    }
+
+    /**
+     * Let every animal of the world look for food once.
+     * @return The number of animals that found food.
+     */
+    private int findFoodForAll()
+    {
+        Randomizer.select(SEED, 0, 0);
+        Field field = simulator.getAnimalField();
+        int cells = field.getDepth() * field.getWidth();
+        int found = 0;
+        try {
+            for(int cell = 0; cell < cells; cell++) {
+                Object object = field.getObjectAt(cell);
+                if(object instanceof Animal && ((Animal) object).isAlive()) {
+                    Location where = (Location) findFood.invoke((Animal) object);
+                    if(where != null) {
+                        found++;
+                    }
+                }
+            }
+        }
+        catch(Throwable e) {
+            throw new IllegalStateException(e);
+        }
+        return found;
+    }
+
+    /**
+     * An observer doing what a view does with a step, without a display:
+     * it counts the population and works out the color of every cell.
+     */
+    private static class RasterObserver implements SimulatorObserver
+    {
+        // The statistics of the step shown.
+        private final FieldStats stats = new FieldStats();
+        // The color of every cell, as RGB values.
+        private int[] colors;
+        // The population details of the step shown, kept so they are not optimised away.
+        private String populationDetails;
+
+        public void showStatus(int step, String time, String weather, Field field)
+        {
+            int cells = field.getDepth() * field.getWidth();
+            if(colors == null || colors.length != cells) {
+                colors = new int[cells];
+            }
+            for(int cell = 0; cell < cells; cell++) {
+                Object object = field.getObjectAt(cell);
+                Color color = object instanceof Drawable ? ((Drawable) object).getColor() : null;
+                colors[cell] = color == null ? 0 : color.getRGB();
+            }
+            stats.reset();
+            populationDetails = stats.getPopulationDetails(field);
+        }
+    }
+}
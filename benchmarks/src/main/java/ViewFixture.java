@@ -0,0 +1,57 @@
+import java.awt.GraphicsEnvironment;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+
+/**
+ * A seeded world shown in a SimulatorView, used by the rendering benchmark.
+ * It needs a display: on a headless machine creating it fails.
+ *
+ * @author Flavio Melinte Citea and Vakaris Paulavičius
+ * @version 1.0
+ */
+public class ViewFixture implements Function<String, IntSupplier>, Runnable
+{
+    // The seed of every benchmarked world.
+    private static final long SEED = 42;
+
+    // The simulation being shown.
+    private Simulator simulator;
+    // The view rendering it.
+    private SimulatorView view;
+
+    /**
+     * Create a square world of the given size and a view of it.
+     * @param size The depth and width of the world.
+     */
+    public ViewFixture(int size)
+    {
+        if(GraphicsEnvironment.isHeadless()) {
+            throw new UnsupportedOperationException("The view benchmarks need a display.");
+        }
+        simulator = new Simulator(size, size, true, SEED);
+        view = new SimulatorView(size, size);
+    }
+
+    /**
+     * Nothing to reset: rendering does not change the world.
+     */
+    public void run()
+    {
+    }
+
+    /**
+     * Return one of the measured operations.
+     * @param operation The name of the operation.
+     * @return The operation. Its result should be consumed by the benchmark.
+     */
+    public IntSupplier apply(String operation)
+    {
+        if(!operation.equals("showStatus")) {
+            throw new IllegalArgumentException("Unknown operation: " + operation);
+        }
+        return () -> {
+            view.showStatus(simulator.getStep(), "Day", "Sunny", simulator.getAnimalField());
+            return simulator.getStep();
+        };
+    }
+}
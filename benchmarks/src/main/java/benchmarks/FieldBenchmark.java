@@ -0,0 +1,79 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the neighbourhood queries of Field on a seeded world.
+ * Every invocation queries the same 1024 random locations; scores are
+ * given per query.
+ *
+ * @author Flavio Melinte Citea and Vakaris Paulavičius
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OperationsPerInvocation(1024)
+public class FieldBenchmark
+{
+    // The depth and width of the world.
+    @Param({"120", "1000"})
+    public int size;
+
+    private IntSupplier adjacentLocations;
+    private IntSupplier getFreeAdjacentLocations;
+    private IntSupplier adjacentCells;
+    private IntSupplier freeAdjacentCells;
+
+    @Setup(Level.Trial)
+    public void createWorld() throws ReflectiveOperationException
+    {
+        Object fixture = Fixtures.create("FieldFixture", size);
+        adjacentLocations = Fixtures.operation(fixture, "adjacentLocations");
+        getFreeAdjacentLocations = Fixtures.operation(fixture, "getFreeAdjacentLocations");
+        adjacentCells = Fixtures.operation(fixture, "adjacentCells");
+        freeAdjacentCells = Fixtures.operation(fixture, "freeAdjacentCells");
+    }
+
+    @Benchmark
+    public int adjacentLocations()
+    {
+        return adjacentLocations.getAsInt();
+    }
+
+    @Benchmark
+    public int getFreeAdjacentLocations()
+    {
+        return getFreeAdjacentLocations.getAsInt();
+    }
+
+    @Benchmark
+    public int adjacentCells()
+    {
+        return adjacentCells.getAsInt();
+    }
+
+    @Benchmark
+    public int freeAdjacentCells()
+    {
+        return freeAdjacentCells.getAsInt();
+    }
+}
@@ -0,0 +1,51 @@
+package benchmarks;
+
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+
+/**
+ * Creates the fixtures of the simulation, which live in the unnamed package
+ * and cannot be referred to from here, and hands out their operations.
+ *
+ * @author Flavio Melinte Citea and Vakaris Paulavičius
+ * @version 1.0
+ */
+final class Fixtures
+{
+    private Fixtures()
+    {
+    }
+
+    /**
+     * Create a fixture for a square world.
+     * @param className The name of the fixture class.
+     * @param size The depth and width of the world.
+     * @return The fixture.
+     */
+    static Object create(String className, int size) throws ReflectiveOperationException
+    {
+        return Class.forName(className).getConstructor(int.class).newInstance(size);
+    }
+
+    /**
+     * Return one of the operations of a fixture.
+     * @param fixture The fixture.
+     * @param name The name of the operation.
+     * @return The operation.
+     */
+    @SuppressWarnings("unchecked")
+    static IntSupplier operation(Object fixture, String name)
+    {
+        return ((Function<String, IntSupplier>) fixture).apply(name);
+    }
+
+    /**
+     * Return the action that puts a fixture back into its initial state.
+     * @param fixture The fixture.
+     * @return The reset action.
+     */
+    static Runnable reset(Object fixture)
+    {
+        return (Runnable) fixture;
+    }
+}
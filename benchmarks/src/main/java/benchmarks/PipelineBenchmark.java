@@ -0,0 +1,79 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of a few steps shown to an observer that does the work of a
+ * view, with and without pipelining. The difference between the two is
+ * the overlap gained by showing a step while the next one is computed.
+ * The world is put back into its seeded initial state before every
+ * invocation (outside the measured time).
+ *
+ * @author Flavio Melinte Citea and Vakaris Paulavičius
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PipelineBenchmark
+{
+    // The depth and width of the world.
+    @Param({"400", "1000"})
+    public int size;
+
+    private Runnable reset;
+    private IntSupplier simulateObserved;
+    private IntSupplier simulatePipelined;
+
+    @Setup(Level.Trial)
+    public void createWorld() throws ReflectiveOperationException
+    {
+        Object fixture = Fixtures.create("SimulatorFixture", size);
+        reset = Fixtures.reset(fixture);
+        simulateObserved = Fixtures.operation(fixture, "simulateObserved");
+        simulatePipelined = Fixtures.operation(fixture, "simulatePipelined");
+    }
+
+    @Setup(Level.Invocation)
+    public void resetWorld()
+    {
+        reset.run();
+    }
+
+    /**
+     * Simulator.simulate for a few steps, showing every step to the
+     * observer once it is computed.
+     */
+    @Benchmark
+    public int simulateObserved()
+    {
+        return simulateObserved.getAsInt();
+    }
+
+    /**
+     * The same steps, pipelined: each step is shown while the next one is
+     * computed, and the run ends when the last one has been shown.
+     */
+    @Benchmark
+    public int simulatePipelined()
+    {
+        return simulatePipelined.getAsInt();
+    }
+}
@@ -0,0 +1,65 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of populating a seeded world and of counting its population.
+ *
+ * @author Flavio Melinte Citea and Vakaris Paulavičius
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PopulationBenchmark
+{
+    // The depth and width of the world.
+    @Param({"120", "400", "1000"})
+    public int size;
+
+    private IntSupplier populateField;
+    private IntSupplier countFieldStats;
+
+    @Setup(Level.Trial)
+    public void createWorld() throws ReflectiveOperationException
+    {
+        Object fixture = Fixtures.create("SimulatorFixture", size);
+        populateField = Fixtures.operation(fixture, "populateField");
+        countFieldStats = Fixtures.operation(fixture, "countFieldStats");
+    }
+
+    /**
+     * Simulator.populateField for both layers, through Simulator.reset.
+     */
+    @Benchmark
+    public int populateField()
+    {
+        return populateField.getAsInt();
+    }
+
+    /**
+     * FieldStats counting every species of the animal field.
+     */
+    @Benchmark
+    public int countFieldStats()
+    {
+        return countFieldStats.getAsInt();
+    }
+}
@@ -0,0 +1,75 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the operations that change the world. The world is put
+ * back into its seeded initial state before every invocation (outside
+ * the measured time), so every step measured is the same step.
+ *
+ * @author Flavio Melinte Citea and Vakaris Paulavičius
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StepBenchmark
+{
+    // The depth and width of the world.
+    @Param({"120", "400", "1000"})
+    public int size;
+
+    private Runnable reset;
+    private IntSupplier simulateOneStep;
+    private IntSupplier findFood;
+
+    @Setup(Level.Trial)
+    public void createWorld() throws ReflectiveOperationException
+    {
+        Object fixture = Fixtures.create("SimulatorFixture", size);
+        reset = Fixtures.reset(fixture);
+        simulateOneStep = Fixtures.operation(fixture, "simulateOneStep");
+        findFood = Fixtures.operation(fixture, "findFood");
+    }
+
+    @Setup(Level.Invocation)
+    public void resetWorld()
+    {
+        reset.run();
+    }
+
+    /**
+     * Simulator.simulateOneStep on the seeded initial world.
+     */
+    @Benchmark
+    public int simulateOneStep()
+    {
+        return simulateOneStep.getAsInt();
+    }
+
+    /**
+     * Animal.findFood, once for every animal of the seeded initial world.
+     */
+    @Benchmark
+    public int findFood()
+    {
+        return findFood.getAsInt();
+    }
+}
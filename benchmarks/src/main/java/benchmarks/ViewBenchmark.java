@@ -0,0 +1,52 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of SimulatorView.showStatus rendering a seeded world.
+ * It needs a display, so leave it out on headless machines
+ * (for example with -e ViewBenchmark).
+ *
+ * @author Flavio Melinte Citea and Vakaris Paulavičius
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ViewBenchmark
+{
+    // The depth and width of the world.
+    @Param({"120", "400"})
+    public int size;
+
+    private IntSupplier showStatus;
+
+    @Setup(Level.Trial)
+    public void createView() throws ReflectiveOperationException
+    {
+        showStatus = Fixtures.operation(Fixtures.create("ViewFixture", size), "showStatus");
+    }
+
+    @Benchmark
+    public int showStatus()
+    {
+        return showStatus.getAsInt();
+    }
+}
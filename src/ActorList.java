@@ -0,0 +1,146 @@
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * The list of living beings of a simulation, built for the churn of a step:
+ * many beings die and many are born every step.
+ *
+ * Beings that die during a step are not removed one by one. They stay in
+ * the list, in their place, until removeDead() drops all of them in a
+ * single pass that keeps the others in order. Beings born during a step
+ * are collected in a newborn buffer, which is reused from step to step,
+ * and only join the list when addNewborns() is called. So, while a step
+ * iterates over the list, the list does not change: every being that was
+ * alive at the start of the step is visited once, in order, including
+ * those that die before their turn comes.
+ *
+ * @author Flavio Melinte Citea and Vakaris Paulavičius
+ * @version 1.0
+ */
+public class ActorList<T extends LivingBeing> extends AbstractList<T> implements RandomAccess
+{
+    // The number of beings there is room for in a new list.
+    private static final int INITIAL_CAPACITY = 16;
+
+    // The beings, in the order they act. Only the first size elements are used.
+    private Object[] actors;
+    // The number of beings in the list.
+    private int size;
+    // The beings born during the current step.
+    private List<T> newborns;
+
+    /**
+     * Create an empty list.
+     */
+    public ActorList()
+    {
+        actors = new Object[INITIAL_CAPACITY];
+        newborns = new ArrayList<>();
+    }
+
+    /**
+     * Return the being at a position of the list.
+     * @param index The position.
+     * @return The being.
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int index)
+    {
+        if(index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return (T) actors[index];
+    }
+
+    /**
+     * Return the number of beings in the list.
+     * @return The number of beings, dead ones not yet removed included.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Add a being at the end of the list.
+     * @param actor The being to add.
+     * @return true.
+     */
+    public boolean add(T actor)
+    {
+        ensureCapacity(size + 1);
+        actors[size++] = actor;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Remove every being from the list, and every newborn from the buffer.
+     */
+    public void clear()
+    {
+        Arrays.fill(actors, 0, size, null);
+        size = 0;
+        newborns.clear();
+        modCount++;
+    }
+
+    /**
+     * Return the buffer beings born during the current step are collected in.
+     * The same buffer is returned every step; it is emptied by addNewborns().
+     * @return The newborn buffer.
+     */
+    public List<T> getNewborns()
+    {
+        return newborns;
+    }
+
+    /**
+     * Move the beings of the newborn buffer to the end of the list, in the
+     * order they were born, and empty the buffer.
+     */
+    public void addNewborns()
+    {
+        ensureCapacity(size + newborns.size());
+        for(T newborn : newborns) {
+            actors[size++] = newborn;
+        }
+        newborns.clear();
+        modCount++;
+    }
+
+    /**
+     * Remove the dead beings, in a single pass over the list. The living
+     * ones keep their order.
+     */
+    public void removeDead()
+    {
+        int kept = 0;
+        for(int index = 0; index < size; index++) {
+            LivingBeing actor = (LivingBeing) actors[index];
+            if(actor.isAlive()) {
+                actors[kept++] = actor;
+            }
+        }
+        Arrays.fill(actors, kept, size, null);
+        size = kept;
+        modCount++;
+    }
+
+    // PRIVATE METHODS
+
+    /**
+     * Make sure there is room for the given number of beings, growing the
+     * list by half if there is not.
+     * @param capacity The number of beings there must be room for.
+     */
+    private void ensureCapacity(int capacity)
+    {
+        if(capacity > actors.length) {
+            actors = Arrays.copyOf(actors, Math.max(capacity, actors.length + (actors.length >> 1)));
+        }
+    }
+}
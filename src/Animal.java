@@ -1,7 +1,5 @@
 import java.util.List;
 import java.util.Random;
-import java.util.Iterator;
-import java.util.HashSet;
 import java.awt.Color;
 
 /**
@@ -22,10 +20,16 @@ public abstract class Animal extends LivingBeing implements Drawable
     private int foodLevel;
     // An flag to determine the gender.
     private boolean isFemale;
-    // A set of diseases that this animal is currently infected with.
-    private HashSet<Disease> diseases;
+    // The diseases this animal is currently infected with: bit d stands for the disease at index d of its field.
+    private int diseaseMask;
+    // The diseases this animal caught from its neighbours in the spreading pass under way.
+    private int caughtMask;
     // The color of this animal.
     private Color color;
+    // How this animal looks with its current color, or null until it is asked for.
+    private Appearance appearance;
+    // Whether this animal is active at night rather than during the day.
+    private final boolean nocturnal;
 
     /**
      * Create a new animal at a location in the field.
@@ -37,8 +41,7 @@ public abstract class Animal extends LivingBeing implements Drawable
     public Animal(boolean randomAge, Field field, Location location)
     {
         super(randomAge, field, location);
-        // Initially an animal has no diseases
-        diseases = new HashSet<>();
+        nocturnal = isNocturnal();
         // Maximum food level is retrieved from a static variable that belongs to a particular animal class
         maxFoodLevel = getDefaultMaxFoodLevel();
 
@@ -67,7 +70,7 @@ public abstract class Animal extends LivingBeing implements Drawable
         incrementHunger();
 
         Field field = getField();
-        if(isAlive() && (isNocturnal() == field.isNight())) {
+        if(isAlive() && isActive(field.isNight())) {
             giveBirth(newAnimals);
             // Move towards a source of food if found.
             Location newLocation = findFood();
@@ -86,6 +89,29 @@ public abstract class Animal extends LivingBeing implements Drawable
         }
     }
 
+    /**
+     * Make this animal rest for a step, outside the time of day it is
+     * active at: it only ages, suffers its diseases and gets hungrier.
+     * For an animal that is not active, this does all that act would do.
+     */
+    protected void rest()
+    {
+        incrementAge();
+        diseasesAct();
+        incrementHunger();
+    }
+
+    /**
+     * Tell whether this animal is active at a time of day, that is whether
+     * it moves, hunts and breeds then.
+     * @param night true if it is night.
+     * @return true if the animal is active.
+     */
+    public boolean isActive(boolean night)
+    {
+        return nocturnal == night;
+    }
+
     /**
      * Return current food level of this animal.
      * @return Current food level (HUNGER).
@@ -95,6 +121,15 @@ public abstract class Animal extends LivingBeing implements Drawable
         return foodLevel;
     }
 
+    /**
+     * Return the maximum food level this animal can reach
+     * @return Maximum food level.
+     */
+    public int getMaxFoodLevel()
+    {
+        return maxFoodLevel;
+    }
+
     /**
      * Change the current food level to a new food level.
      * @param newFoodLevel A new value to replace with.
@@ -114,11 +149,26 @@ public abstract class Animal extends LivingBeing implements Drawable
 
     /**
      * Infect this animal with a specified disease.
-     * @param newDisease A new disease this animal is infected with.
+     * @param newDisease A new disease this animal is infected with, one of the diseases of its field.
      */
     public void infectWith(Disease newDisease)
     {
-        if(newDisease != null) diseases.add(newDisease);
+        if(newDisease != null) {
+            int index = getField().indexOf(newDisease);
+            if(index < 0) {
+                throw new IllegalArgumentException("Not a disease of this world: " + newDisease);
+            }
+            infectWith(index);
+        }
+    }
+
+    /**
+     * Infect this animal with the disease at an index of the diseases of its field.
+     * @param diseaseIndex The index of the disease.
+     */
+    public void infectWith(int diseaseIndex)
+    {
+        diseaseMask |= 1 << diseaseIndex;
         this.setColor(getProperColor());
     }
 
@@ -140,6 +190,32 @@ public abstract class Animal extends LivingBeing implements Drawable
         return isFemale;
     }
 
+    /**
+     * Return the diseases this animal is infected with.
+     * @return The disease mask: bit d is set if it has the disease at index d of its field.
+     */
+    public int getDiseaseMask()
+    {
+        return diseaseMask;
+    }
+
+    /**
+     * Give this animal the state it had when a snapshot was taken.
+     * The values are taken as they are, without the checks of the setters.
+     * @param foodLevel The current food level.
+     * @param maxFoodLevel The maximum food level.
+     * @param female true if the animal is female.
+     * @param diseaseMask The diseases, as returned by getDiseaseMask.
+     */
+    void restoreAnimalState(int foodLevel, int maxFoodLevel, boolean female, int diseaseMask)
+    {
+        this.foodLevel = foodLevel;
+        this.maxFoodLevel = maxFoodLevel;
+        isFemale = female;
+        this.diseaseMask = diseaseMask;
+        setColor(getProperColor());
+    }
+
     /**
      * Returns the color of this animal
      * @return Color object of the animal.
@@ -149,6 +225,19 @@ public abstract class Animal extends LivingBeing implements Drawable
         return color;
     }
 
+    /**
+     * Return how this animal looks now. The appearance is kept until the
+     * color of the animal changes, so it is only made again then.
+     * @return The appearance.
+     */
+    public Appearance getAppearance()
+    {
+        if(appearance == null) {
+            appearance = new Appearance(color, getDefaultColor());
+        }
+        return appearance;
+    }
+
     // PRIVATE METHODS
 
     /**
@@ -158,6 +247,7 @@ public abstract class Animal extends LivingBeing implements Drawable
     private void setColor(Color newColor)
     {
         color = newColor;
+        appearance = null;
     }
 
     /**
@@ -177,7 +267,7 @@ public abstract class Animal extends LivingBeing implements Drawable
             properColor = properColor.darker();
         }
 
-        if(!diseases.isEmpty()) {
+        if(diseaseMask != 0) {
             properColor = getSickColor(properColor);
         }
 
@@ -212,15 +302,6 @@ public abstract class Animal extends LivingBeing implements Drawable
         return new Color(r, g, b, a);
     }
 
-    /**
-     * Return the maximum food level this animal can reach
-     * @return Maximum food level.
-     */
-    private int getMaxFoodLevel()
-    {
-        return maxFoodLevel;
-    }
-
     /**
      * Change the maximum food level to a new maximum food level.
      * @param newMaxFoodLevel A new value to replace with.
@@ -245,41 +326,53 @@ public abstract class Animal extends LivingBeing implements Drawable
     private Location findFood(){
         Field field = getField();
         Field huntingField = getHuntingField();
+        FoodWeb foodWeb = SpeciesRegistry.getFoodWeb();
 
-        List<Location> reachableLocations = huntingField.adjacentLocations(getLocation());
+        int[] reachableCells = getAdjacentCells();
+        int count = huntingField.adjacentCells(getLocation(), reachableCells);
         // The location of the animal is added as well (rabbits can eat plants that grow in their location).
-        reachableLocations.add(getLocation());
+        int ownCell = huntingField.cellOf(getLocation());
+        reachableCells[count++] = ownCell;
 
-        // Iterates over the reachable locations.
-        Iterator<Location> it = reachableLocations.iterator();
-        while(it.hasNext()) {
-            Location where = it.next();
-            Object possibleFood = huntingField.getObjectAt(where);
+        // Plants that grow in an automaton are not objects of the hunting field.
+        PlantAutomaton plants = huntingField.getPlantAutomaton();
+        boolean eatsPlants = plants != null && foodWeb.canEat(getSpeciesId(), plants.getSpeciesId());
 
-            // Checks if the object found is food.
-            if(possibleFood != null && isEdible(possibleFood.getClass())) {
-                // First check if it is the same field
-                // If no, it means that it is a herbivore looking for food in the plant field
-                // Then if there is no object at that location in the animal field it can move there and eat the plant that grows there
-                // If there already is an animal, it checks whether it's the same location that this.Animal stands in.
-                // If it is true, then it means that a herbivore is in the same location as ther plan and it can eat it.
-                if(field == huntingField || field.getObjectAt(where) == null || where == getLocation()) {
-                    LivingBeing prey = (LivingBeing) possibleFood;
-
-                    // Checks if prey is alive.
-                    if(prey.isAlive()) {
-                        // eats prey.
-                        prey.setDead();
-                        foodLevel += prey.getFoodValue();
-
-                        // Food value cannot go beyond its limit.
-                        if(foodLevel > getMaxFoodLevel()) {
-                            foodLevel = getMaxFoodLevel();
-                        }
+        // Iterates over the reachable locations.
+        for(int i = 0; i < count; i++) {
+            int where = reachableCells[i];
+            // First check if it is the same field
+            // If no, it means that it is a herbivore looking for food in the plant field
+            // Then if there is no object at that location in the animal field it can move there and eat the plant that grows there
+            // If there already is an animal, it checks whether it's the same location that this.Animal stands in.
+            // If it is true, then it means that a herbivore is in the same location as ther plan and it can eat it.
+            if(field != huntingField && field.getObjectAt(where) != null && where != ownCell) {
+                continue;
+            }
 
-                        return where;
+            if(plants != null) {
+                if(eatsPlants && plants.hasPlant(where)) {
+                    int foodValue = plants.eat(where);
+                    if(foodValue > 0) {
+                        eat(foodValue);
+                        return field.getLocation(where);
                     }
+                }
+                continue;
+            }
 
+            Object possibleFood = huntingField.getObjectAt(where);
+            // Checks if the object found is food.
+            if(possibleFood instanceof LivingBeing
+                    && foodWeb.canEat(getSpeciesId(), ((LivingBeing) possibleFood).getSpeciesId())) {
+                LivingBeing prey = (LivingBeing) possibleFood;
+
+                // Checks if prey is alive.
+                if(prey.isAlive()) {
+                    // eats prey.
+                    prey.setDead();
+                    eat(prey.getFoodValue());
+                    return field.getLocation(where);
                 }
             }
         }
@@ -288,29 +381,28 @@ public abstract class Animal extends LivingBeing implements Drawable
     }
 
     /**
-     * Make this animal more hungry. This could result in the animal's death.
+     * Add the food value of what this animal ate to its food level.
+     * @param foodValue The food value.
      */
-    private void incrementHunger()
+    private void eat(int foodValue)
     {
-        foodLevel--;
-        if(foodLevel <= 0) {
-            setDead();
+        foodLevel += foodValue;
+
+        // Food value cannot go beyond its limit.
+        if(foodLevel > getMaxFoodLevel()) {
+            foodLevel = getMaxFoodLevel();
         }
     }
 
     /**
-     * Checks if the animal eats instances of a class.
-     * @param objectClass Class of the instances.
-     * @return true if the animal does eat instances of the specified class.
+     * Make this animal more hungry. This could result in the animal's death.
      */
-    private boolean isEdible(Class objectClass)
+    private void incrementHunger()
     {
-        Class[] menu = retrieveEdible();
-        for(int i = 0; i < menu.length; i++)
-        {
-            if(objectClass.equals(menu[i])) return true;
+        foodLevel--;
+        if(foodLevel <= 0) {
+            setDead();
         }
-        return false;
     }
 
     /**
@@ -323,20 +415,20 @@ public abstract class Animal extends LivingBeing implements Drawable
         Field field = getField();
 
         // Checks if there is a male around.
-        if(isFemale() && canBreed() && thereIsMaleOfBreedingAge(field.adjacentLocations(getLocation()), field))
+        if(isFemale() && canBreed() && thereIsMaleOfBreedingAge(field))
         {
-            // Get a list of adjacent free locations.
+            // Get the adjacent free locations.
             // New animals may be born into free adjacent locations (number might be zero).
-            List<Location> free = field.getFreeAdjacentLocations(getLocation());
+            int[] free = getAdjacentCells();
+            int freeCount = field.freeAdjacentCells(getLocation(), free);
 
             // Generates a random number of births based on class-defined probabilities.
             int births = breed();
 
             // Puts newborns in the free adjacent locations.
             // If there are no free adjacent locations, no young will be born.
-            for(int b = 0; b < births && free.size() > 0; b++) {
-                Location loc = free.remove(0);
-                Animal young = createNewborn(field, loc);
+            for(int b = 0; b < births && b < freeCount; b++) {
+                Animal young = createNewborn(field, field.getLocation(free[b]));
                 newAnimals.add(young);
             }
         }
@@ -357,30 +449,29 @@ public abstract class Animal extends LivingBeing implements Drawable
     }
 
     /**
-     * Checks whether or not there is a male of the same species of breeding age in a list of locations.
-     * @param locations Locations where we want to see if there is a male.
-     * @param field The field the locations belong to.
+     * Checks whether or not there is a male of the same species of breeding age around this animal.
+     * @param field The field this animal is in.
      * @return true If there is at least one male.
      */
-    private boolean thereIsMaleOfBreedingAge(List<Location> locations, Field field)
+    private boolean thereIsMaleOfBreedingAge(Field field)
     {
         if(field == null) {
             return false;
         }
 
-        // Iterate through locations.
-        for(Location location : locations) {
-            if(location != null) {
-                Object object = field.getObjectAt(location.getRow(), location.getCol());
+        // Iterate through the adjacent locations.
+        int[] cells = getAdjacentCells();
+        int count = field.adjacentCells(getLocation(), cells);
+        for(int i = 0; i < count; i++) {
+            Object object = field.getObjectAt(cells[i]);
 
-                // Check if animals are of the same species.
-                if(object != null && object.getClass().equals(this.getClass())) {
-                    Animal animal = (Animal) object;
+            // Check if animals are of the same species.
+            if(object instanceof Animal && ((Animal) object).getSpeciesId() == getSpeciesId()) {
+                Animal animal = (Animal) object;
 
-                    // Check if animal is male of breeding age.
-                    if(!animal.isFemale() && animal.canBreed()) {
-                        return true;
-                    }
+                // Check if animal is male of breeding age.
+                if(!animal.isFemale() && animal.canBreed()) {
+                    return true;
                 }
             }
         }
@@ -389,14 +480,19 @@ public abstract class Animal extends LivingBeing implements Drawable
     }
 
     /**
-     * Used to make all the diseases, that this animal is infected with, act on this animal.
+     * Used to make all the diseases, that this animal is infected with, act on this animal,
+     * in the order of their indexes. Healthy and dead animals have nothing to do.
+     * The diseases spread to the neighbours later, once every living being has acted.
      */
     private void diseasesAct()
     {
-        for(Disease disease : diseases)
-        {
-            infectNeighbours(disease);
-            disease.act(this);
+        if(diseaseMask == 0 || !isAlive()) {
+            return;
+        }
+
+        Field field = getField();
+        for(int mask = diseaseMask; mask != 0; mask &= mask - 1) {
+            field.getDisease(Integer.numberOfTrailingZeros(mask)).act(this);
         }
     }
 
@@ -411,32 +507,58 @@ public abstract class Animal extends LivingBeing implements Drawable
     }
 
     /**
-     * Used to try to infect neighbouring animals with the disease.
-     * @param disease A disease to try to infect with.
+     * Used to try to infect neighbouring animals with the diseases of this animal,
+     * once every living being has acted. The neighbourhood is looked at once for all
+     * of the diseases, and a neighbour is only tried with the diseases it can catch
+     * and has not had or caught yet. What a neighbour catches is only added to its
+     * diseases by catchDiseases, so it does not spread any further in the same pass.
+     * @param rand The random stream of the spreading.
+     * @param caught A list to receive the neighbours that catch their first disease of the pass.
      */
-    private void infectNeighbours(Disease disease)
+    void infectNeighbours(Random rand, List<Animal> caught)
     {
-        if(this.isAlive()) {
-            Field field = getField();
-            List<Location> adjacent = field.adjacentLocations(getLocation());
-            // Check all the neighbours to check whether they can be infected
-            for(Location location : adjacent)
+        if(diseaseMask == 0 || !isAlive()) {
+            return;
+        }
+
+        Field field = getField();
+        int[] adjacent = getAdjacentCells();
+        int count = field.adjacentCells(getLocation(), adjacent);
+        // Check all the neighbours to check whether they can be infected
+        for(int i = 0; i < count; i++)
+        {
+            Object animalObject = field.getObjectAt(adjacent[i]);
+            if(animalObject instanceof Animal)
             {
-                Object animalObject = field.getObjectAt(location);
-                if(disease.canInfect(animalObject))
+                Animal animal = (Animal) animalObject;
+                for(int mask = diseaseMask & ~(animal.diseaseMask | animal.caughtMask); mask != 0; mask &= mask - 1)
                 {
-                    Animal animal = (Animal) animalObject;
-                    Random rand = animal.getRand();
-
-                    if(rand.nextDouble() <= disease.getInfectionProbability())
+                    int index = Integer.numberOfTrailingZeros(mask);
+                    Disease disease = field.getDisease(index);
+                    if(disease.canInfectSpecies(animal.getSpeciesId())
+                            && rand.nextDouble() <= disease.getInfectionProbability())
                     {
-                        animal.infectWith(disease);
+                        if(animal.caughtMask == 0) {
+                            caught.add(animal);
+                        }
+                        animal.caughtMask |= 1 << index;
                     }
                 }
             }
         }
     }
 
+    /**
+     * Add the diseases this animal caught from its neighbours in the last
+     * spreading pass to its own.
+     */
+    void catchDiseases()
+    {
+        diseaseMask |= caughtMask;
+        caughtMask = 0;
+        setColor(getProperColor());
+    }
+
     /**
      * Set all the instance attributes, that have a default static value, to the default value.
      */
@@ -478,12 +600,6 @@ public abstract class Animal extends LivingBeing implements Drawable
      */
     abstract protected int getMaxLitterSize();
 
-    /**
-     * Return an array of classes whose instances this animal eats.
-     * @return A Class array of edible species.
-     */
-    abstract protected Class[] retrieveEdible();
-
     /**
      * Used to create a new animal of this type.
      * @param field A field to put the animal in.
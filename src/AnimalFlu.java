@@ -34,6 +34,16 @@ public class AnimalFlu extends Disease
         animal.setFoodLevel(animal.getFoodLevel() - DECREASE_FOOD_LEVEL_BY);
     }
 
+    /**
+     * Used to act on the animal in a cell of a world store.
+     * @param world The world store holding the animal.
+     * @param cell The cell of the animal this disease acts on.
+     */
+    public void act(WorldStore world, long cell)
+    {
+        world.setFoodLevel(cell, Math.max(0, world.getFoodLevel(cell) - DECREASE_FOOD_LEVEL_BY));
+    }
+
     /**
      * Return the infection probability of the COVID420.
      * @return INFECTION_PROBABILITY
@@ -0,0 +1,50 @@
+import java.awt.Color;
+
+/**
+ * How a living being looked at the end of a step: its color and the
+ * default color of its species, and nothing else. A pipelined simulation
+ * shows its observers appearances instead of the living beings, which go
+ * on acting while the observers look at the step.
+ *
+ * Appearances never change, so an animal keeps its appearance from one
+ * step to the next until its color changes.
+ *
+ * @author Flavio Melinte Citea and Vakaris Paulavičius
+ * @version 1.0
+ */
+public class Appearance implements Drawable
+{
+    // The color of the being.
+    private final Color color;
+    // The default color of the being's species.
+    private final Color defaultColor;
+
+    /**
+     * Create an appearance.
+     * @param color The color of the being, or null if it has none.
+     * @param defaultColor The default color of the being's species, or null if it has none.
+     */
+    public Appearance(Color color, Color defaultColor)
+    {
+        this.color = color;
+        this.defaultColor = defaultColor;
+    }
+
+    /**
+     * Return the color of the being.
+     * @return The color.
+     */
+    public Color getColor()
+    {
+        return color;
+    }
+
+    /**
+     * Return the default color of the being's species.
+     * @return The default color.
+     */
+    public Color getDefaultColor()
+    {
+        return defaultColor;
+    }
+}
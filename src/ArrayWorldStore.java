@@ -0,0 +1,233 @@
+/**
+ * A world store kept in flat primitive arrays, one array per attribute,
+ * all indexed by cell. A cell takes 15 bytes, whoever lives there,
+ * and scanning the world walks the arrays in order.
+ *
+ * The number of cells must fit in a Java array.
+ *
+ * @author Flavio Melinte Citea and Vakaris Paulavičius
+ * @version 1.0
+ */
+public class ArrayWorldStore extends WorldStore
+{
+    // Species code of the animal in each cell.
+    private final byte[] species;
+    // Age of the animal in each cell.
+    private final short[] age;
+    // Maximum age of the animal in each cell.
+    private final short[] maxAge;
+    // Food level of the animal in each cell.
+    private final short[] foodLevel;
+    // Flags of each cell.
+    private final byte[] flags;
+    // Disease mask of the animal in each cell.
+    private final int[] diseases;
+    // Species code of the plant in each cell.
+    private final byte[] plant;
+    // Age of the plant in each cell.
+    private final short[] plantAge;
+
+    /**
+     * Create an empty store for a world of the given dimensions.
+     * @param depth The depth of the world.
+     * @param width The width of the world.
+     */
+    public ArrayWorldStore(int depth, int width)
+    {
+        super(depth, width);
+        long cells = getCellCount();
+        if(cells > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("World too large for an array store: " + depth + "x" + width);
+        }
+        int size = (int) cells;
+        species = new byte[size];
+        age = new short[size];
+        maxAge = new short[size];
+        foodLevel = new short[size];
+        flags = new byte[size];
+        diseases = new int[size];
+        plant = new byte[size];
+        plantAge = new short[size];
+    }
+
+    /**
+     * Return the species code of the animal in a cell.
+     * @param cell The cell index.
+     * @return The species code, or NONE if there is no animal.
+     */
+    public int getSpecies(long cell)
+    {
+        return species[(int) cell];
+    }
+
+    /**
+     * Set the species code of the animal in a cell.
+     * @param cell The cell index.
+     * @param code The species code, or NONE to empty the cell.
+     */
+    public void setSpecies(long cell, int code)
+    {
+        species[(int) cell] = (byte) code;
+    }
+
+    /**
+     * Return the age of the animal in a cell.
+     * @param cell The cell index.
+     * @return The age.
+     */
+    public int getAge(long cell)
+    {
+        return age[(int) cell];
+    }
+
+    /**
+     * Set the age of the animal in a cell.
+     * @param cell The cell index.
+     * @param newAge The new age.
+     */
+    public void setAge(long cell, int newAge)
+    {
+        age[(int) cell] = (short) newAge;
+    }
+
+    /**
+     * Return the maximum age of the animal in a cell.
+     * @param cell The cell index.
+     * @return The maximum age.
+     */
+    public int getMaxAge(long cell)
+    {
+        return maxAge[(int) cell];
+    }
+
+    /**
+     * Set the maximum age of the animal in a cell.
+     * @param cell The cell index.
+     * @param newMaxAge The new maximum age.
+     */
+    public void setMaxAge(long cell, int newMaxAge)
+    {
+        maxAge[(int) cell] = (short) newMaxAge;
+    }
+
+    /**
+     * Return the food level of the animal in a cell.
+     * @param cell The cell index.
+     * @return The food level.
+     */
+    public int getFoodLevel(long cell)
+    {
+        return foodLevel[(int) cell];
+    }
+
+    /**
+     * Set the food level of the animal in a cell.
+     * @param cell The cell index.
+     * @param newFoodLevel The new food level.
+     */
+    public void setFoodLevel(long cell, int newFoodLevel)
+    {
+        foodLevel[(int) cell] = (short) newFoodLevel;
+    }
+
+    /**
+     * Return the flags of a cell.
+     * @param cell The cell index.
+     * @return The flags.
+     */
+    public int getFlags(long cell)
+    {
+        return flags[(int) cell];
+    }
+
+    /**
+     * Set the flags of a cell.
+     * @param cell The cell index.
+     * @param newFlags The new flags.
+     */
+    public void setFlags(long cell, int newFlags)
+    {
+        flags[(int) cell] = (byte) newFlags;
+    }
+
+    /**
+     * Return the disease mask of the animal in a cell.
+     * @param cell The cell index.
+     * @return The disease mask.
+     */
+    public int getDiseases(long cell)
+    {
+        return diseases[(int) cell];
+    }
+
+    /**
+     * Set the disease mask of the animal in a cell.
+     * @param cell The cell index.
+     * @param mask The new disease mask.
+     */
+    public void setDiseases(long cell, int mask)
+    {
+        diseases[(int) cell] = mask;
+    }
+
+    /**
+     * Return the species code of the plant in a cell.
+     * @param cell The cell index.
+     * @return The species code, or NONE if nothing grows there.
+     */
+    public int getPlant(long cell)
+    {
+        return plant[(int) cell];
+    }
+
+    /**
+     * Set the species code of the plant in a cell.
+     * @param cell The cell index.
+     * @param code The species code, or NONE to empty the cell.
+     */
+    public void setPlant(long cell, int code)
+    {
+        plant[(int) cell] = (byte) code;
+    }
+
+    /**
+     * Return the age of the plant in a cell.
+     * @param cell The cell index.
+     * @return The age.
+     */
+    public int getPlantAge(long cell)
+    {
+        return plantAge[(int) cell];
+    }
+
+    /**
+     * Set the age of the plant in a cell.
+     * @param cell The cell index.
+     * @param newAge The new age.
+     */
+    public void setPlantAge(long cell, int newAge)
+    {
+        plantAge[(int) cell] = (short) newAge;
+    }
+
+    /**
+     * Make every animal a step older and hungrier, and flag the ones that
+     * are now too old or starving, in one sweep over the arrays without
+     * branches. Every cell is updated the same way; in a cell without an
+     * animal, the step added is 0 and the DYING flag stays clear.
+     */
+    public void ageAnimals()
+    {
+        for(int cell = 0; cell < species.length; cell++) {
+            // 1 if the cell holds an animal, 0 if not.
+            int occupied = ((species[cell] & 0xFF) + 0xFF) >>> 8;
+            int newAge = age[cell] + occupied;
+            int newFoodLevel = foodLevel[cell] - occupied;
+            age[cell] = (short) newAge;
+            foodLevel[cell] = (short) newFoodLevel;
+            // Negative exactly when the animal is too old or starving.
+            int dying = ((maxAge[cell] - newAge) | (newFoodLevel - 1)) & -occupied;
+            flags[cell] = (byte) ((flags[cell] & ~DYING) | ((dying >> 31) & DYING));
+        }
+    }
+}
@@ -0,0 +1,617 @@
+import java.util.Arrays;
+
+/**
+ * A world store for large, mostly empty forests. The cells are split into
+ * chunks of CHUNK_SIZE consecutive cells, and a chunk only exists while
+ * something lives in it: chunks are created by the first animal or plant
+ * placed in them and dropped when the last one leaves.
+ *
+ * A chunk with few occupied cells keeps just those, sorted by cell, and
+ * finds them by binary search. Once it holds more than SPARSE_LIMIT cells
+ * it switches to a dense array of all its cells, and back again when it
+ * falls under half of that.
+ *
+ * Only occupied cells are stored: the values of a cell with neither an
+ * animal nor a plant are not kept and read as zero, as after clear().
+ * Setting the species or plant of a cell is what makes it occupied.
+ *
+ * @author Flavio Melinte Citea and Vakaris Paulavičius
+ * @version 1.0
+ */
+public class ChunkedWorldStore extends WorldStore
+{
+    // The number of cells per chunk, as a power of two, and the number of cells per chunk.
+    private static final int CHUNK_SHIFT = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    // The largest number of occupied cells a sparse chunk holds.
+    private static final int SPARSE_LIMIT = CHUNK_SIZE / 16;
+    // The number of cells a sparse chunk has room for when created.
+    private static final int INITIAL_CAPACITY = 8;
+
+    // The values of a cell are packed into a long and an int, apart from its
+    // disease mask, which is kept whole. Positions in the long:
+    private static final int SPECIES = 0;
+    private static final int FLAGS = 8;
+    private static final int PLANT = 24;
+    private static final int AGE = 32;
+    private static final int MAX_AGE = 48;
+    // Positions in the int:
+    private static final int FOOD_LEVEL = 0;
+    private static final int PLANT_AGE = 16;
+    // The masks of byte and short values.
+    private static final long BYTE = 0xFF;
+    private static final long SHORT = 0xFFFF;
+    // The bits that are set while a cell is occupied.
+    private static final long OCCUPANTS = (BYTE << SPECIES) | (BYTE << PLANT);
+
+    // The chunks of the world, null where nothing lives.
+    private final Chunk[] chunks;
+
+    /**
+     * The occupied cells of a chunk. A sparse chunk keeps the offsets of its
+     * cells within the chunk, in ascending order, and their values at the same
+     * index. A dense chunk has no offsets and keeps the values of all its cells.
+     */
+    private static class Chunk
+    {
+        // The number of occupied cells.
+        int size;
+        // The offsets of the occupied cells, or null if the chunk is dense.
+        short[] offsets;
+        // The packed values of the cells.
+        long[] bits;
+        int[] extra;
+        // The disease masks of the cells.
+        int[] diseases;
+    }
+
+    /**
+     * Create an empty store for a world of the given dimensions.
+     * @param depth The depth of the world.
+     * @param width The width of the world.
+     */
+    public ChunkedWorldStore(int depth, int width)
+    {
+        super(depth, width);
+        long count = (getCellCount() + CHUNK_SIZE - 1) >>> CHUNK_SHIFT;
+        if(count > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("World too large for a chunked store: " + depth + "x" + width);
+        }
+        chunks = new Chunk[(int) count];
+    }
+
+    /**
+     * Empty the whole world by dropping every chunk.
+     */
+    public void clear()
+    {
+        Arrays.fill(chunks, null);
+    }
+
+    /**
+     * Return the first cell, from the given one on, that may be occupied.
+     * Chunks that do not exist are skipped whole, and so are the free cells
+     * of sparse chunks.
+     * @param cell The cell to start from.
+     * @return The cell, or the number of cells if there is none.
+     */
+    public long nextOccupiedCell(long cell)
+    {
+        long cells = getCellCount();
+        while(cell < cells) {
+            Chunk chunk = chunks[(int) (cell >>> CHUNK_SHIFT)];
+            if(chunk != null) {
+                if(chunk.offsets == null) {
+                    return cell;
+                }
+                int index = search(chunk, offsetOf(cell));
+                if(index < 0) {
+                    index = -index - 1;
+                }
+                if(index < chunk.size) {
+                    return (cell & ~(CHUNK_SIZE - 1L)) + chunk.offsets[index];
+                }
+            }
+            // Nothing further in this chunk: go on with the next one.
+            cell = (cell | (CHUNK_SIZE - 1L)) + 1;
+        }
+        return cells;
+    }
+
+    /**
+     * Return the number of chunks currently allocated.
+     * @return The number of chunks with something living in them.
+     */
+    public int getChunkCount()
+    {
+        int count = 0;
+        for(Chunk chunk : chunks) {
+            if(chunk != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Make every animal a step older and hungrier, and flag the ones that
+     * are now too old or starving, chunk by chunk. Only the cells kept by
+     * the chunks that exist are looked at, and they are all updated the same
+     * way, without branches; in a cell without an animal, the step added is
+     * 0 and the DYING flag stays clear.
+     */
+    public void ageAnimals()
+    {
+        int foodMask = (int) SHORT << FOOD_LEVEL;
+        for(Chunk chunk : chunks) {
+            if(chunk != null) {
+                int count = chunk.offsets == null ? CHUNK_SIZE : chunk.size;
+                for(int index = 0; index < count; index++) {
+                    long bits = chunk.bits[index];
+                    int extra = chunk.extra[index];
+                    // 1 if the cell holds an animal, 0 if not.
+                    int occupied = (int) (((bits >>> SPECIES) & BYTE) + BYTE) >>> 8;
+                    int age = (short) (bits >>> AGE) + occupied;
+                    int foodLevel = (short) (extra >>> FOOD_LEVEL) - occupied;
+                    // Negative exactly when the animal is too old or starving.
+                    int dying = (((short) (bits >>> MAX_AGE) - age) | (foodLevel - 1)) & -occupied;
+                    bits &= ~((SHORT << AGE) | ((long) DYING << FLAGS));
+                    bits |= ((age & SHORT) << AGE) | ((long) ((dying >> 31) & DYING) << FLAGS);
+                    chunk.bits[index] = bits;
+                    chunk.extra[index] = (extra & ~foodMask) | ((foodLevel << FOOD_LEVEL) & foodMask);
+                }
+            }
+        }
+    }
+
+    /**
+     * Return the species code of the animal in a cell.
+     * @param cell The cell index.
+     * @return The species code, or NONE if there is no animal.
+     */
+    public int getSpecies(long cell)
+    {
+        return (byte) (getBits(cell) >>> SPECIES);
+    }
+
+    /**
+     * Set the species code of the animal in a cell.
+     * @param cell The cell index.
+     * @param code The species code, or NONE to empty the cell.
+     */
+    public void setSpecies(long cell, int code)
+    {
+        setBits(cell, SPECIES, BYTE, code);
+    }
+
+    /**
+     * Return the age of the animal in a cell.
+     * @param cell The cell index.
+     * @return The age.
+     */
+    public int getAge(long cell)
+    {
+        return (short) (getBits(cell) >>> AGE);
+    }
+
+    /**
+     * Set the age of the animal in a cell.
+     * @param cell The cell index.
+     * @param newAge The new age.
+     */
+    public void setAge(long cell, int newAge)
+    {
+        setBits(cell, AGE, SHORT, newAge);
+    }
+
+    /**
+     * Return the maximum age of the animal in a cell.
+     * @param cell The cell index.
+     * @return The maximum age.
+     */
+    public int getMaxAge(long cell)
+    {
+        return (short) (getBits(cell) >>> MAX_AGE);
+    }
+
+    /**
+     * Set the maximum age of the animal in a cell.
+     * @param cell The cell index.
+     * @param newMaxAge The new maximum age.
+     */
+    public void setMaxAge(long cell, int newMaxAge)
+    {
+        setBits(cell, MAX_AGE, SHORT, newMaxAge);
+    }
+
+    /**
+     * Return the food level of the animal in a cell.
+     * @param cell The cell index.
+     * @return The food level.
+     */
+    public int getFoodLevel(long cell)
+    {
+        return (short) (getExtra(cell) >>> FOOD_LEVEL);
+    }
+
+    /**
+     * Set the food level of the animal in a cell.
+     * @param cell The cell index.
+     * @param newFoodLevel The new food level.
+     */
+    public void setFoodLevel(long cell, int newFoodLevel)
+    {
+        setExtra(cell, FOOD_LEVEL, newFoodLevel);
+    }
+
+    /**
+     * Return the flags of a cell.
+     * @param cell The cell index.
+     * @return The flags.
+     */
+    public int getFlags(long cell)
+    {
+        return (byte) (getBits(cell) >>> FLAGS);
+    }
+
+    /**
+     * Set the flags of a cell.
+     * @param cell The cell index.
+     * @param newFlags The new flags.
+     */
+    public void setFlags(long cell, int newFlags)
+    {
+        setBits(cell, FLAGS, BYTE, newFlags);
+    }
+
+    /**
+     * Return the disease mask of the animal in a cell.
+     * @param cell The cell index.
+     * @return The disease mask.
+     */
+    public int getDiseases(long cell)
+    {
+        Chunk chunk = chunks[(int) (cell >>> CHUNK_SHIFT)];
+        if(chunk == null) {
+            return 0;
+        }
+        int index = indexOf(chunk, offsetOf(cell));
+        return index < 0 ? 0 : chunk.diseases[index];
+    }
+
+    /**
+     * Set the disease mask of the animal in a cell.
+     * @param cell The cell index.
+     * @param mask The new disease mask.
+     */
+    public void setDiseases(long cell, int mask)
+    {
+        Chunk chunk = chunks[(int) (cell >>> CHUNK_SHIFT)];
+        if(chunk != null) {
+            int index = indexOf(chunk, offsetOf(cell));
+            if(index >= 0) {
+                chunk.diseases[index] = mask;
+            }
+        }
+    }
+
+    /**
+     * Return the species code of the plant in a cell.
+     * @param cell The cell index.
+     * @return The species code, or NONE if nothing grows there.
+     */
+    public int getPlant(long cell)
+    {
+        return (byte) (getBits(cell) >>> PLANT);
+    }
+
+    /**
+     * Set the species code of the plant in a cell.
+     * @param cell The cell index.
+     * @param code The species code, or NONE to empty the cell.
+     */
+    public void setPlant(long cell, int code)
+    {
+        setBits(cell, PLANT, BYTE, code);
+    }
+
+    /**
+     * Return the age of the plant in a cell.
+     * @param cell The cell index.
+     * @return The age.
+     */
+    public int getPlantAge(long cell)
+    {
+        return (short) (getExtra(cell) >>> PLANT_AGE);
+    }
+
+    /**
+     * Set the age of the plant in a cell.
+     * @param cell The cell index.
+     * @param newAge The new age.
+     */
+    public void setPlantAge(long cell, int newAge)
+    {
+        setExtra(cell, PLANT_AGE, newAge);
+    }
+
+    // PRIVATE METHODS
+
+    /**
+     * Return the packed long of a cell.
+     * @param cell The cell index.
+     * @return The packed values, or 0 if the cell is not occupied.
+     */
+    private long getBits(long cell)
+    {
+        Chunk chunk = chunks[(int) (cell >>> CHUNK_SHIFT)];
+        if(chunk == null) {
+            return 0;
+        }
+        int offset = offsetOf(cell);
+        if(chunk.offsets == null) {
+            // Free cells of dense chunks are kept at zero.
+            return chunk.bits[offset];
+        }
+        int index = search(chunk, offset);
+        return index < 0 ? 0 : chunk.bits[index];
+    }
+
+    /**
+     * Return the packed int of a cell.
+     * @param cell The cell index.
+     * @return The packed values, or 0 if the cell is not occupied.
+     */
+    private int getExtra(long cell)
+    {
+        Chunk chunk = chunks[(int) (cell >>> CHUNK_SHIFT)];
+        if(chunk == null) {
+            return 0;
+        }
+        int offset = offsetOf(cell);
+        if(chunk.offsets == null) {
+            // Free cells of dense chunks are kept at zero.
+            return chunk.extra[offset];
+        }
+        int index = search(chunk, offset);
+        return index < 0 ? 0 : chunk.extra[index];
+    }
+
+    /**
+     * Set one of the values packed in the long of a cell. Setting the species
+     * or plant of a free cell occupies it; other values of free cells are not kept.
+     * A cell left with neither an animal nor a plant is freed.
+     * @param cell The cell index.
+     * @param position The position of the value in the long.
+     * @param mask The mask of the value (BYTE or SHORT).
+     * @param value The new value.
+     */
+    private void setBits(long cell, int position, long mask, int value)
+    {
+        long shifted = (value & mask) << position;
+        int chunkIndex = (int) (cell >>> CHUNK_SHIFT);
+        Chunk chunk = chunks[chunkIndex];
+        int offset = offsetOf(cell);
+        int index = chunk == null ? -1 : indexOf(chunk, offset);
+        if(index < 0) {
+            if((shifted & OCCUPANTS) == 0) {
+                return;
+            }
+            if(chunk == null) {
+                chunk = createChunk();
+                chunks[chunkIndex] = chunk;
+            }
+            index = occupy(chunk, offset);
+        }
+
+        long bits = (chunk.bits[index] & ~(mask << position)) | shifted;
+        chunk.bits[index] = bits;
+        if((bits & OCCUPANTS) == 0) {
+            free(chunkIndex, offset);
+        }
+    }
+
+    /**
+     * Set one of the values packed in the int of a cell. The values of free
+     * cells are not kept.
+     * @param cell The cell index.
+     * @param position The position of the value in the int.
+     * @param value The new value.
+     */
+    private void setExtra(long cell, int position, int value)
+    {
+        Chunk chunk = chunks[(int) (cell >>> CHUNK_SHIFT)];
+        if(chunk != null) {
+            int index = indexOf(chunk, offsetOf(cell));
+            if(index >= 0) {
+                int mask = (int) SHORT << position;
+                chunk.extra[index] = (chunk.extra[index] & ~mask) | ((value << position) & mask);
+            }
+        }
+    }
+
+    /**
+     * Create a new, sparse chunk with no occupied cells.
+     * @return The chunk.
+     */
+    private Chunk createChunk()
+    {
+        Chunk chunk = new Chunk();
+        chunk.offsets = new short[INITIAL_CAPACITY];
+        chunk.bits = new long[INITIAL_CAPACITY];
+        chunk.extra = new int[INITIAL_CAPACITY];
+        chunk.diseases = new int[INITIAL_CAPACITY];
+        return chunk;
+    }
+
+    /**
+     * Return where the values of an occupied cell are kept in its chunk.
+     * @param chunk The chunk.
+     * @param offset The offset of the cell within the chunk.
+     * @return The index of the values, or a negative number if the cell is free.
+     */
+    private int indexOf(Chunk chunk, int offset)
+    {
+        if(chunk.offsets == null) {
+            return (chunk.bits[offset] & OCCUPANTS) != 0 ? offset : -1;
+        }
+        return search(chunk, offset);
+    }
+
+    /**
+     * Look for an offset among the occupied cells of a sparse chunk.
+     * @param chunk The sparse chunk.
+     * @param offset The offset of the cell within the chunk.
+     * @return The index of the offset if found, or (-(insertion point) - 1).
+     */
+    private int search(Chunk chunk, int offset)
+    {
+        int low = 0;
+        int high = chunk.size - 1;
+        while(low <= high) {
+            int middle = (low + high) >>> 1;
+            int found = chunk.offsets[middle];
+            if(found < offset) {
+                low = middle + 1;
+            }
+            else if(found > offset) {
+                high = middle - 1;
+            }
+            else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * Make room for a free cell in its chunk, switching the chunk to the
+     * dense encoding if it has grown too large. The cell's values are zero.
+     * @param chunk The chunk.
+     * @param offset The offset of the cell within the chunk.
+     * @return The index of the cell's values.
+     */
+    private int occupy(Chunk chunk, int offset)
+    {
+        if(chunk.offsets != null && chunk.size == SPARSE_LIMIT) {
+            makeDense(chunk);
+        }
+        if(chunk.offsets == null) {
+            chunk.size++;
+            return offset;
+        }
+
+        int index = -search(chunk, offset) - 1;
+        chunk.size++;
+        if(chunk.size > chunk.offsets.length) {
+            int capacity = Math.min(SPARSE_LIMIT, chunk.offsets.length * 2);
+            chunk.offsets = Arrays.copyOf(chunk.offsets, capacity);
+            chunk.bits = Arrays.copyOf(chunk.bits, capacity);
+            chunk.extra = Arrays.copyOf(chunk.extra, capacity);
+            chunk.diseases = Arrays.copyOf(chunk.diseases, capacity);
+        }
+        int moved = chunk.size - 1 - index;
+        System.arraycopy(chunk.offsets, index, chunk.offsets, index + 1, moved);
+        System.arraycopy(chunk.bits, index, chunk.bits, index + 1, moved);
+        System.arraycopy(chunk.extra, index, chunk.extra, index + 1, moved);
+        System.arraycopy(chunk.diseases, index, chunk.diseases, index + 1, moved);
+        chunk.offsets[index] = (short) offset;
+        chunk.bits[index] = 0;
+        chunk.extra[index] = 0;
+        chunk.diseases[index] = 0;
+        return index;
+    }
+
+    /**
+     * Free a cell that has neither an animal nor a plant left, dropping its
+     * chunk if it was the last occupied cell, or switching the chunk back to
+     * the sparse encoding if few enough cells are left.
+     * @param chunkIndex The index of the chunk.
+     * @param offset The offset of the cell within the chunk.
+     */
+    private void free(int chunkIndex, int offset)
+    {
+        Chunk chunk = chunks[chunkIndex];
+        if(chunk.size == 1) {
+            chunks[chunkIndex] = null;
+            return;
+        }
+
+        if(chunk.offsets == null) {
+            chunk.size--;
+            chunk.bits[offset] = 0;
+            chunk.extra[offset] = 0;
+            chunk.diseases[offset] = 0;
+            if(chunk.size < SPARSE_LIMIT / 2) {
+                makeSparse(chunk);
+            }
+            return;
+        }
+
+        int index = search(chunk, offset);
+        chunk.size--;
+        int moved = chunk.size - index;
+        System.arraycopy(chunk.offsets, index + 1, chunk.offsets, index, moved);
+        System.arraycopy(chunk.bits, index + 1, chunk.bits, index, moved);
+        System.arraycopy(chunk.extra, index + 1, chunk.extra, index, moved);
+        System.arraycopy(chunk.diseases, index + 1, chunk.diseases, index, moved);
+    }
+
+    /**
+     * Switch a sparse chunk to the dense encoding.
+     * @param chunk The chunk.
+     */
+    private void makeDense(Chunk chunk)
+    {
+        long[] bits = new long[CHUNK_SIZE];
+        int[] extra = new int[CHUNK_SIZE];
+        int[] diseases = new int[CHUNK_SIZE];
+        for(int index = 0; index < chunk.size; index++) {
+            int offset = chunk.offsets[index];
+            bits[offset] = chunk.bits[index];
+            extra[offset] = chunk.extra[index];
+            diseases[offset] = chunk.diseases[index];
+        }
+        chunk.offsets = null;
+        chunk.bits = bits;
+        chunk.extra = extra;
+        chunk.diseases = diseases;
+    }
+
+    /**
+     * Switch a dense chunk to the sparse encoding.
+     * @param chunk The chunk.
+     */
+    private void makeSparse(Chunk chunk)
+    {
+        int capacity = Math.min(SPARSE_LIMIT, Math.max(INITIAL_CAPACITY, chunk.size * 2));
+        short[] offsets = new short[capacity];
+        long[] bits = new long[capacity];
+        int[] extra = new int[capacity];
+        int[] diseases = new int[capacity];
+        int index = 0;
+        for(int offset = 0; offset < CHUNK_SIZE; offset++) {
+            if((chunk.bits[offset] & OCCUPANTS) != 0) {
+                offsets[index] = (short) offset;
+                bits[index] = chunk.bits[offset];
+                extra[index] = chunk.extra[offset];
+                diseases[index] = chunk.diseases[offset];
+                index++;
+            }
+        }
+        chunk.offsets = offsets;
+        chunk.bits = bits;
+        chunk.extra = extra;
+        chunk.diseases = diseases;
+    }
+
+    /**
+     * Return the offset of a cell within its chunk.
+     * @param cell The cell index.
+     * @return The offset.
+     */
+    private int offsetOf(long cell)
+    {
+        return (int) (cell & (CHUNK_SIZE - 1));
+    }
+}
@@ -0,0 +1,93 @@
+import java.util.List;
+
+/**
+ * The weather of a world, as it affects each species. When the weather
+ * changes, only the breeding modifier of every registered species is worked
+ * out again, whatever the number of living beings; the beings apply it
+ * themselves, when their breeding probability is next read.
+ *
+ * Every change of weather starts a new epoch, so that a living being can
+ * tell whether the breeding probability it worked out last is still valid.
+ *
+ * @author Flavio Melinte Citea and Vakaris Paulavičius
+ * @version 1.0
+ */
+public class Climate
+{
+    // The current weather, or null if there is none yet.
+    private Weather weather;
+    // The breeding modifier of every registered species under the current weather, by species id.
+    private double[] breedingModifiers;
+    // The number of times the weather was set.
+    private int epoch;
+
+    /**
+     * Create a climate without weather, which affects no species.
+     */
+    public Climate()
+    {
+        breedingModifiers = new double[0];
+    }
+
+    /**
+     * Change the weather. This costs one modifier per registered species.
+     * @param newWeather The new weather.
+     */
+    public void setWeather(Weather newWeather)
+    {
+        weather = newWeather;
+        breedingModifiers = computeModifiers();
+        epoch++;
+    }
+
+    /**
+     * Return the current weather.
+     * @return The weather, or null if none was set.
+     */
+    public Weather getWeather()
+    {
+        return weather;
+    }
+
+    /**
+     * Return the number of times the weather was set. It changes every time
+     * the modifiers may have changed.
+     * @return The epoch.
+     */
+    public int getEpoch()
+    {
+        return epoch;
+    }
+
+    /**
+     * Return by how much the current weather multiplies the breeding probability of a species.
+     * @param speciesId The id of the species (see SpeciesRegistry).
+     * @return The factor to multiply the breeding probability by.
+     */
+    public double getBreedingModifier(int speciesId)
+    {
+        double[] modifiers = breedingModifiers;
+        if(speciesId >= modifiers.length) {
+            // The species was registered after the weather was set.
+            modifiers = computeModifiers();
+            breedingModifiers = modifiers;
+        }
+        return modifiers[speciesId];
+    }
+
+    // PRIVATE METHODS
+
+    /**
+     * Work out the breeding modifier of every registered species under the current weather.
+     * @return The modifiers, by species id.
+     */
+    private double[] computeModifiers()
+    {
+        List<SpeciesTraits> species = SpeciesRegistry.getSpecies();
+        double[] modifiers = new double[species.size()];
+        for(int id = 0; id < modifiers.length; id++) {
+            modifiers[id] = weather == null ? 1.0 : weather.getBreedingModifier(species.get(id).getSpeciesClass());
+        }
+        return modifiers;
+    }
+}
@@ -0,0 +1,826 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A predator-prey simulator that keeps the forest in a WorldStore
+ * instead of creating an object for every living being.
+ *
+ * The rules are those of the Simulator: animals age, get sick, get hungry,
+ * and when they are active they breed, look for food and move. Plants age
+ * and spread. Species are identified by a small code (their position in
+ * the species table) and described by their SpeciesTraits.
+ *
+ * Every step starts with all animals getting older and hungrier at once,
+ * in a single pass over the store; the ones that must die are flagged and
+ * die when their turn comes. Then the world is scanned cell by cell. A flag in each cell records
+ * the parity of the step its animal (or plant) last acted in, so that beings
+ * which moved forward or were just born do not act twice.
+ *
+ * The two engines are not expected to take the same course. The Simulator
+ * gives every living being a random stream of its own and lets the beings
+ * act in the order of its list; the CompactSimulator draws all of its random
+ * numbers from a single stream, in the order it scans the world. A seeded run
+ * of either engine is reproducible, but runs of the two engines with the same
+ * seed only share the expected size of their starting populations.
+ *
+ * At the end of every step, the step, time of day, weather and position in
+ * the random stream are kept in the engine values of the store. A simulation
+ * can then be resumed from a store kept in a file, and continues exactly as
+ * it would have.
+ *
+ * @author Flavio Melinte Citea and Vakaris Paulavičius
+ * @version 1.0
+ */
+public class CompactSimulator implements SimulationEngine
+{
+    // Constants representing configuration information for the simulation.
+    // The default width for the grid.
+    private static final int DEFAULT_WIDTH = 120;
+    // The default depth of the grid.
+    private static final int DEFAULT_DEPTH = 80;
+    // A chance that at any step the wether will change.
+    private static final double chanceOfWeatherChange = 0.1;
+    // The species code of plants in the plant layer.
+    private static final int PLANT = 1;
+    // The engine values of the store that the state of the simulation is kept in.
+    private static final int STEP = 0;
+    private static final int TIME_OF_DAY = 1;
+    private static final int WEATHER = 2;
+    private static final int RANDOM_STATE = 3;
+
+    // A randomizer object for the simulation
+    private StreamRandom rand;
+    // The state of the whole forest.
+    private WorldStore world;
+    // The traits of each animal species, indexed by species code.
+    private List<SpeciesTraits> species;
+    // The initial creation probability of each animal species, indexed by species code.
+    private List<Double> creationProbabilities;
+    // Whether the species with a given code looks for food in the plant layer.
+    private boolean[] eatsPlants;
+    // Whether the first species eats the second, indexed by species codes.
+    private boolean[][] edible;
+    // The current breeding probability of each species, weather included.
+    private double[] breedingProbabilities;
+    // The number of animals of each species.
+    private long[] population;
+    // The traits of the plants.
+    private SpeciesTraits plantTraits;
+    // The initial creation probability of plants.
+    private double plantCreationProbability;
+    // The current spreading probability of plants, weather included.
+    private double plantBreedingProbability;
+    // A list of diseases animals can get infected with. A disease's bit in a disease mask is its index.
+    private List<Disease> diseases;
+    // Whether a disease can infect the species with a given code, indexed by disease and species code.
+    private boolean[][] infectable;
+    // A list of the types of weather that can occur.
+    private List<Weather> typesOfWeather;
+    // Current weather in the simulation.
+    private Weather weather;
+    // Time tracker for the simulation
+    private TimeTracker timeTracker;
+    // The current step of the simulation.
+    private int step;
+    // Scratch space for the cells around a cell (and the cell itself).
+    private long[] adjacent;
+    // Scratch space for the free cells around a cell.
+    private long[] free;
+
+    public static void main(String[] args) throws IOException
+    {
+        // Optionally: the depth and width of the world, and a file to keep it in off the heap.
+        // A world already kept in the file is resumed.
+        CompactSimulator simulator;
+        OffHeapWorldStore file = null;
+        if(args.length >= 3) {
+            int depth = Integer.parseInt(args[0]);
+            int width = Integer.parseInt(args[1]);
+            file = new OffHeapWorldStore(depth, width, Paths.get(args[2]));
+            simulator = file.isKept() ? resume(file) : new CompactSimulator(file);
+        }
+        else if(args.length == 2) {
+            simulator = new CompactSimulator(Integer.parseInt(args[0]), Integer.parseInt(args[1]));
+        }
+        else {
+            simulator = new CompactSimulator();
+        }
+        simulator.simulate(4000);
+        if(file != null) {
+            file.force();
+        }
+        System.out.println("Step: " + simulator.getStep() + " " + simulator.getPopulationDetails());
+    }
+
+    /**
+     * Construct a simulation with default size.
+     */
+    public CompactSimulator()
+    {
+        this(DEFAULT_DEPTH, DEFAULT_WIDTH);
+    }
+
+    /**
+     * Create a simulation of the given size, kept in primitive arrays.
+     * @param depth Depth of the field. Must be greater than zero.
+     * @param width Width of the field. Must be greater than zero.
+     */
+    public CompactSimulator(int depth, int width)
+    {
+        this(new ArrayWorldStore(depth > 0 ? depth : DEFAULT_DEPTH, width > 0 ? width : DEFAULT_WIDTH));
+    }
+
+    /**
+     * Create a simulation kept in the given world store.
+     * @param world The store holding the forest.
+     */
+    public CompactSimulator(WorldStore world)
+    {
+        this(world, Randomizer.getDefaultSeed());
+    }
+
+    /**
+     * Create a simulation kept in the given world store.
+     * Two simulations with the same seed behave exactly the same.
+     * @param world The store holding the forest.
+     * @param seed The seed of the simulation's random numbers.
+     */
+    public CompactSimulator(WorldStore world, long seed)
+    {
+        this(world, seed, false);
+    }
+
+    /**
+     * Create a simulation kept in the given world store.
+     * @param world The store holding the forest.
+     * @param seed The seed of the simulation's random numbers, unless resumed.
+     * @param resumed true to go on with the world of the store, false to start over.
+     */
+    private CompactSimulator(WorldStore world, long seed, boolean resumed)
+    {
+        this.world = world;
+        rand = new StreamRandom(seed);
+        adjacent = new long[9];
+        free = new long[8];
+
+        setSpecies();
+        setDiseases();
+        setTypesOfWeather();
+
+        // By default the weather is sunny
+        weather = new SunnyWeather();
+        applyWeather();
+        timeTracker = new TimeTracker(0, 24, 21, 5);
+
+        if(resumed) {
+            resumeState();
+        }
+        else {
+            // Setup a valid starting point.
+            reset();
+        }
+    }
+
+    /**
+     * Go on with the simulation held in a world store, e.g. one kept in a file
+     * by an earlier run (see OffHeapWorldStore). Nothing is reset: the world,
+     * step, time of day, weather and random numbers are taken from the store,
+     * so the simulation continues exactly as the one that left it would have.
+     * @param world A store a CompactSimulator has simulated in.
+     * @return The resumed simulation.
+     */
+    public static CompactSimulator resume(WorldStore world)
+    {
+        return new CompactSimulator(world, 0, true);
+    }
+
+    /**
+     * Run the simulation from its current state for the given number of steps.
+     * Stop before the given number of steps if it ceases to be viable.
+     * @param numSteps The number of steps to run for.
+     */
+    public void simulate(int numSteps)
+    {
+        for(int step = 1; step <= numSteps && isViable(); step++) {
+            simulateOneStep();
+        }
+    }
+
+    /**
+     * Run the simulation from its current state for a single step.
+     * Scan the whole world, letting every animal and plant act once.
+     * Cells the store knows to be empty are skipped.
+     */
+    public void simulateOneStep()
+    {
+        step++;
+        timeTracker.increaseTime();
+        changeWeather();
+        world.ageAnimals();
+
+        boolean night = timeTracker.isNight();
+        int animalParity = parity(WorldStore.ANIMAL_ACTED);
+        int plantParity = parity(WorldStore.PLANT_ACTED);
+        long cells = world.getCellCount();
+        for(long cell = world.nextOccupiedCell(0); cell < cells; cell = world.nextOccupiedCell(cell + 1)) {
+            int code = world.getSpecies(cell);
+            if(code != WorldStore.NONE && (world.getFlags(cell) & WorldStore.ANIMAL_ACTED) != animalParity) {
+                actAnimal(cell, code, night);
+            }
+            if(world.getPlant(cell) != WorldStore.NONE && (world.getFlags(cell) & WorldStore.PLANT_ACTED) != plantParity) {
+                actPlant(cell);
+            }
+        }
+        saveState();
+    }
+
+    /**
+     * Reset the simulation to a starting position.
+     */
+    public void reset()
+    {
+        step = 0;
+        world.clear();
+        population = new long[species.size()];
+        populate();
+        saveState();
+    }
+
+    /**
+     * Return the number of steps simulated since the last reset.
+     * @return The current step.
+     */
+    public int getStep()
+    {
+        return step;
+    }
+
+    /**
+     * Determine whether the simulation should continue to run.
+     * @return true If there is more than one animal species alive.
+     */
+    public boolean isViable()
+    {
+        int nonZero = 0;
+        for(int code = 1; code < population.length; code++) {
+            if(population[code] > 0) {
+                nonZero++;
+            }
+        }
+        return nonZero > 1;
+    }
+
+    /**
+     * Return the number of living animals of a species.
+     * @param speciesClass The class of the species.
+     * @return The number of animals of that species.
+     */
+    public long getPopulation(Class speciesClass)
+    {
+        for(int code = 1; code < species.size(); code++) {
+            if(species.get(code).getSpeciesClass().equals(speciesClass)) {
+                return population[code];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Get details of what is in the world.
+     * @return A string describing the animals in the world.
+     */
+    public String getPopulationDetails()
+    {
+        StringBuffer buffer = new StringBuffer();
+        for(int code = 1; code < species.size(); code++) {
+            buffer.append(species.get(code).getName());
+            buffer.append(": ");
+            buffer.append(population[code]);
+            buffer.append(' ');
+        }
+        return buffer.toString();
+    }
+
+    /**
+     * Return the store holding the forest.
+     * @return The world store.
+     */
+    public WorldStore getWorld()
+    {
+        return world;
+    }
+
+    // PRIVATE METHODS
+
+    /**
+     * Determines the species simulated, as well as their initial creation probability.
+     */
+    private void setSpecies()
+    {
+        species = new ArrayList<>();
+        creationProbabilities = new ArrayList<>();
+        // Code 0 means that a cell is empty.
+        species.add(null);
+        creationProbabilities.add(0.0);
+
+        // Animals
+        addSpecies(Lynx.TRAITS, 0.02);
+        addSpecies(Wolf.TRAITS, 0.02);
+        addSpecies(Deer.TRAITS, 0.08);
+        addSpecies(Hamster.TRAITS, 0.08);
+        // Plants
+        plantTraits = Plant.TRAITS;
+        plantCreationProbability = 0.20;
+
+        int count = species.size();
+        eatsPlants = new boolean[count];
+        edible = new boolean[count][count];
+        breedingProbabilities = new double[count];
+        for(int code = 1; code < count; code++) {
+            SpeciesTraits traits = species.get(code);
+            eatsPlants[code] = traits.eats(plantTraits.getSpeciesClass());
+            for(int prey = 1; prey < count; prey++) {
+                edible[code][prey] = traits.eats(species.get(prey).getSpeciesClass());
+            }
+        }
+    }
+
+    /**
+     * Add an animal species to the simulation. It gets the next free species code.
+     * @param traits The traits of the species.
+     * @param creationProbability The probability of creating a member in each cell.
+     */
+    private void addSpecies(SpeciesTraits traits, double creationProbability)
+    {
+        species.add(traits);
+        creationProbabilities.add(creationProbability);
+    }
+
+    /**
+     * Used to specify the diseases that are available in this simulation.
+     */
+    private void setDiseases()
+    {
+        diseases = new ArrayList<>();
+        diseases.add(new WolfFlu());
+        diseases.add(new AnimalFlu());
+
+        infectable = new boolean[diseases.size()][species.size()];
+        for(int d = 0; d < diseases.size(); d++) {
+            for(int code = 1; code < species.size(); code++) {
+                infectable[d][code] = diseases.get(d).canInfectSpecies(species.get(code).getSpeciesClass());
+            }
+        }
+    }
+
+    /**
+     * Used to specify all the available types of weather in this simulation.
+     */
+    private void setTypesOfWeather()
+    {
+        typesOfWeather = new ArrayList<>();
+        typesOfWeather.add(new RainyWeather());
+        typesOfWeather.add(new SunnyWeather());
+    }
+
+    /**
+     * Used to change the current simulation weather.
+     */
+    private void changeWeather()
+    {
+        double newDouble = rand.nextDouble();
+        int newInt = rand.nextInt(typesOfWeather.size());
+
+        if(newDouble <= chanceOfWeatherChange) {
+            weather = typesOfWeather.get(newInt);
+            applyWeather();
+        }
+    }
+
+    /**
+     * Recompute the breeding probability of every species for the current weather.
+     */
+    private void applyWeather()
+    {
+        for(int code = 1; code < species.size(); code++) {
+            SpeciesTraits traits = species.get(code);
+            breedingProbabilities[code] = Math.min(1.0,
+                    traits.getBreedingProbability() * weather.getBreedingModifier(traits.getSpeciesClass()));
+        }
+        plantBreedingProbability = Math.min(1.0,
+                plantTraits.getBreedingProbability() * weather.getBreedingModifier(plantTraits.getSpeciesClass()));
+    }
+
+    /**
+     * Randomly populate the world with animals and plants, respectively.
+     */
+    private void populate()
+    {
+        long cells = world.getCellCount();
+        for(long cell = 0; cell < cells; cell++) {
+            // Take every species, and decide if a member is placed in the cell.
+            for(int code = 1; code < species.size(); code++) {
+                if(rand.nextDouble() <= creationProbabilities.get(code)) {
+                    placeAnimal(cell, code, true);
+                    break;
+                }
+            }
+        }
+        for(long cell = 0; cell < cells; cell++) {
+            if(rand.nextDouble() <= plantCreationProbability) {
+                placePlant(cell, true);
+            }
+        }
+    }
+
+    /**
+     * Keep the state of the simulation that is not in the cells in the
+     * engine values of the store.
+     */
+    private void saveState()
+    {
+        world.setEngineValue(STEP, step);
+        world.setEngineValue(TIME_OF_DAY, timeTracker.getTimeOfDay());
+        world.setEngineValue(WEATHER, getWeatherIndex());
+        world.setEngineValue(RANDOM_STATE, rand.getState());
+    }
+
+    /**
+     * Take the state of the simulation from the engine values of the store,
+     * and count the animals of the world.
+     */
+    private void resumeState()
+    {
+        step = (int) world.getEngineValue(STEP);
+        timeTracker.setTimeOfDay((int) world.getEngineValue(TIME_OF_DAY));
+        int weatherIndex = (int) world.getEngineValue(WEATHER);
+        if(weatherIndex >= 0 && weatherIndex < typesOfWeather.size()) {
+            weather = typesOfWeather.get(weatherIndex);
+            applyWeather();
+        }
+        rand.reseed(world.getEngineValue(RANDOM_STATE));
+
+        population = new long[species.size()];
+        long cells = world.getCellCount();
+        for(long cell = world.nextOccupiedCell(0); cell < cells; cell = world.nextOccupiedCell(cell + 1)) {
+            int code = world.getSpecies(cell);
+            if(code != WorldStore.NONE) {
+                population[code]++;
+            }
+        }
+    }
+
+    /**
+     * Return the index of the current weather among the types of weather.
+     * @return The index, or -1 if the weather is not one of them.
+     */
+    private int getWeatherIndex()
+    {
+        for(int index = 0; index < typesOfWeather.size(); index++) {
+            if(typesOfWeather.get(index).getClass() == weather.getClass()) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Return the value an acted flag has in the current step.
+     * @param flag ANIMAL_ACTED or PLANT_ACTED.
+     * @return The flag on odd steps, 0 on even ones.
+     */
+    private int parity(int flag)
+    {
+        return (step & 1) != 0 ? flag : 0;
+    }
+
+    /**
+     * Set an acted flag of a cell to the current step.
+     * @param cell The cell.
+     * @param flag ANIMAL_ACTED or PLANT_ACTED.
+     */
+    private void markActed(long cell, int flag)
+    {
+        world.setFlags(cell, (world.getFlags(cell) & ~flag) | parity(flag));
+    }
+
+    /**
+     * Create a new animal in a cell. It will not act until the next step.
+     * @param cell The cell to place the animal in.
+     * @param code The species code of the animal.
+     * @param randomAge true if the age and food level should be random.
+     */
+    private void placeAnimal(long cell, int code, boolean randomAge)
+    {
+        SpeciesTraits traits = species.get(code);
+        int age = randomAge ? rand.nextInt(traits.getMaxAge()) : 0;
+        int foodLevel = randomAge ? rand.nextInt(traits.getMaxFoodLevel()) : traits.getMaxFoodLevel();
+        boolean female = rand.nextInt(2) == 1;
+
+        world.setSpecies(cell, code);
+        world.setAge(cell, age);
+        world.setMaxAge(cell, traits.getMaxAge());
+        world.setFoodLevel(cell, foodLevel);
+        world.setDiseases(cell, 0);
+        int flags = world.getFlags(cell) & WorldStore.PLANT_ACTED;
+        if(female) {
+            flags |= WorldStore.FEMALE;
+        }
+        world.setFlags(cell, flags | parity(WorldStore.ANIMAL_ACTED));
+        population[code]++;
+    }
+
+    /**
+     * Remove a dead animal from its cell.
+     * @param cell The cell of the animal.
+     * @param code The species code of the animal.
+     */
+    private void killAnimal(long cell, int code)
+    {
+        world.clearAnimal(cell);
+        population[code]--;
+    }
+
+    /**
+     * Create a new plant in a cell. It will not act until the next step.
+     * @param cell The cell to place the plant in.
+     * @param randomAge true if the age should be random.
+     */
+    private void placePlant(long cell, boolean randomAge)
+    {
+        world.setPlant(cell, PLANT);
+        world.setPlantAge(cell, randomAge ? rand.nextInt(plantTraits.getMaxAge()) : 0);
+        markActed(cell, WorldStore.PLANT_ACTED);
+    }
+
+    /**
+     * Make the animal in a cell act - that is: make it do
+     * whatever it wants/needs to do.
+     * @param cell The cell of the animal.
+     * @param code The species code of the animal.
+     * @param night true if it is currently night.
+     */
+    private void actAnimal(long cell, int code, boolean night)
+    {
+        markActed(cell, WorldStore.ANIMAL_ACTED);
+        randomlyInfect(cell, code);
+
+        // The animal got older and hungrier at the start of the step.
+        boolean flagged = (world.getFlags(cell) & WorldStore.DYING) != 0;
+        if(flagged && world.getAge(cell) > world.getMaxAge(cell)) {
+            killAnimal(cell, code);
+            return;
+        }
+
+        // Let the diseases act.
+        int diseaseMask = world.getDiseases(cell);
+        for(int d = 0, mask = diseaseMask; mask != 0; d++, mask >>>= 1) {
+            if((mask & 1) != 0) {
+                infectNeighbours(cell, d);
+                diseases.get(d).act(world, cell);
+            }
+        }
+
+        // Diseases can only leave an animal hungrier than it was flagged as.
+        if((flagged || diseaseMask != 0) && world.getFoodLevel(cell) <= 0) {
+            killAnimal(cell, code);
+            return;
+        }
+
+        if(species.get(code).isNocturnal() == night) {
+            giveBirth(cell, code);
+            // Move towards a source of food if found.
+            long newCell = findFood(cell, code);
+            if(newCell < 0) {
+                // No food found - try to move to a free cell.
+                newCell = freeAdjacentCell(cell);
+            }
+            // See if it was possible to move.
+            if(newCell >= 0) {
+                world.moveAnimal(cell, newCell);
+            }
+            else {
+                // Overcrowding.
+                killAnimal(cell, code);
+            }
+        }
+    }
+
+    /**
+     * Make the plant in a cell act - that is make it grow and spread.
+     * @param cell The cell of the plant.
+     */
+    private void actPlant(long cell)
+    {
+        markActed(cell, WorldStore.PLANT_ACTED);
+
+        int age = world.getPlantAge(cell) + 1;
+        world.setPlantAge(cell, age);
+        if(age > plantTraits.getMaxAge()) {
+            world.setPlant(cell, WorldStore.NONE);
+            return;
+        }
+
+        // Spread to the free neighbouring cells of the plant layer.
+        int count = adjacentCells(cell, adjacent);
+        for(int i = 0; i < count; i++) {
+            long where = adjacent[i];
+            if(world.getPlant(where) == WorldStore.NONE && rand.nextDouble() <= plantBreedingProbability) {
+                placePlant(where, false);
+            }
+        }
+    }
+
+    /**
+     * Try to infect the animal in a cell with all of the available diseases.
+     * @param cell The cell of the animal.
+     * @param code The species code of the animal.
+     */
+    private void randomlyInfect(long cell, int code)
+    {
+        for(int d = 0; d < diseases.size(); d++) {
+            if(infectable[d][code] && rand.nextDouble() <= diseases.get(d).getRandomInfectionProbability()) {
+                world.setDiseases(cell, world.getDiseases(cell) | (1 << d));
+            }
+        }
+    }
+
+    /**
+     * Used to try to infect neighbouring animals with a disease.
+     * @param cell The cell of the infected animal.
+     * @param d The index of the disease.
+     */
+    private void infectNeighbours(long cell, int d)
+    {
+        double probability = diseases.get(d).getInfectionProbability();
+        int count = adjacentCells(cell, adjacent);
+        for(int i = 0; i < count; i++) {
+            long where = adjacent[i];
+            int code = world.getSpecies(where);
+            if(code != WorldStore.NONE && infectable[d][code] && rand.nextDouble() <= probability) {
+                world.setDiseases(where, world.getDiseases(where) | (1 << d));
+            }
+        }
+    }
+
+    /**
+     * Check whether or not the animal in a cell is to give birth at this step.
+     * New births will be made into free adjacent cells.
+     * @param cell The cell of the animal.
+     * @param code The species code of the animal.
+     */
+    private void giveBirth(long cell, int code)
+    {
+        SpeciesTraits traits = species.get(code);
+        boolean female = (world.getFlags(cell) & WorldStore.FEMALE) != 0;
+        if(female && world.getAge(cell) >= traits.getBreedingAge() && thereIsMaleOfBreedingAge(cell, code)) {
+            int freeCount = freeAdjacentCells(cell, free);
+            int births = breed(code);
+            for(int b = 0; b < births && b < freeCount; b++) {
+                placeAnimal(free[b], code, false);
+            }
+        }
+    }
+
+    /**
+     * Generate a number representing the number of births.
+     * @param code The species code of the mother.
+     * @return The number of births (may be zero).
+     */
+    private int breed(int code)
+    {
+        int births = 0;
+        if(rand.nextDouble() <= breedingProbabilities[code]) {
+            births = rand.nextInt(species.get(code).getMaxLitterSize()) + 1;
+        }
+        return births;
+    }
+
+    /**
+     * Checks whether or not there is a male of the same species of breeding age around a cell.
+     * @param cell The cell of the female.
+     * @param code The species code of the female.
+     * @return true If there is at least one male.
+     */
+    private boolean thereIsMaleOfBreedingAge(long cell, int code)
+    {
+        int breedingAge = species.get(code).getBreedingAge();
+        int count = adjacentCells(cell, adjacent);
+        for(int i = 0; i < count; i++) {
+            long where = adjacent[i];
+            if(world.getSpecies(where) == code && (world.getFlags(where) & WorldStore.FEMALE) == 0
+                    && world.getAge(where) >= breedingAge) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Look for prey/plants reachable from a cell. Only the first one found is eaten.
+     * Herbivores can also eat the plant growing in their own cell.
+     * @param cell The cell of the hungry animal.
+     * @param code The species code of the animal.
+     * @return The cell where food was found, or -1 if it wasn't.
+     */
+    private long findFood(long cell, int code)
+    {
+        int count = adjacentCells(cell, adjacent);
+        adjacent[count++] = cell;
+        for(int i = 0; i < count; i++) {
+            long where = adjacent[i];
+            int foodValue = 0;
+            if(eatsPlants[code]) {
+                // The plant can only be reached if no other animal stands on it.
+                if(world.getPlant(where) != WorldStore.NONE
+                        && (where == cell || world.getSpecies(where) == WorldStore.NONE)) {
+                    world.setPlant(where, WorldStore.NONE);
+                    foodValue = plantTraits.getFoodValue();
+                }
+            }
+            else {
+                int prey = world.getSpecies(where);
+                if(where != cell && prey != WorldStore.NONE && edible[code][prey]) {
+                    foodValue = species.get(prey).getFoodValue();
+                    killAnimal(where, prey);
+                }
+            }
+            if(foodValue > 0) {
+                int maxFoodLevel = species.get(code).getMaxFoodLevel();
+                world.setFoodLevel(cell, Math.min(maxFoodLevel, world.getFoodLevel(cell) + foodValue));
+                return where;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Return a random free cell of the animal layer around a cell.
+     * @param cell The cell to look around.
+     * @return A free cell, or -1 if there is none.
+     */
+    private long freeAdjacentCell(long cell)
+    {
+        int count = adjacentCells(cell, adjacent);
+        for(int i = 0; i < count; i++) {
+            if(world.getSpecies(adjacent[i]) == WorldStore.NONE) {
+                return adjacent[i];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Fill an array with the free cells of the animal layer around a cell, in a random order.
+     * @param cell The cell to look around.
+     * @param cells An array of at least 8 elements to receive the free cells.
+     * @return The number of free cells found.
+     */
+    private int freeAdjacentCells(long cell, long[] cells)
+    {
+        int count = adjacentCells(cell, adjacent);
+        int freeCount = 0;
+        for(int i = 0; i < count; i++) {
+            if(world.getSpecies(adjacent[i]) == WorldStore.NONE) {
+                cells[freeCount++] = adjacent[i];
+            }
+        }
+        return freeCount;
+    }
+
+    /**
+     * Fill an array with the cells adjacent to a cell, in a random order.
+     * The cell itself is not included. All cells lie within the world.
+     * @param cell The cell from which to generate adjacencies.
+     * @param cells An array of at least 8 elements to receive the adjacent cells.
+     * @return The number of adjacent cells.
+     */
+    private int adjacentCells(long cell, long[] cells)
+    {
+        int row = world.rowOf(cell);
+        int col = world.colOf(cell);
+        int count = 0;
+        for(int roffset = -1; roffset <= 1; roffset++) {
+            int nextRow = row + roffset;
+            if(nextRow >= 0 && nextRow < world.getDepth()) {
+                for(int coffset = -1; coffset <= 1; coffset++) {
+                    int nextCol = col + coffset;
+                    // Exclude invalid cells and the original cell.
+                    if(nextCol >= 0 && nextCol < world.getWidth() && (roffset != 0 || coffset != 0)) {
+                        cells[count++] = world.cellOf(nextRow, nextCol);
+                    }
+                }
+            }
+        }
+        // Shuffle the cells, the same way Collections.shuffle does.
+        for(int i = count; i > 1; i--) {
+            int j = rand.nextInt(i);
+            long swap = cells[i - 1];
+            cells[i - 1] = cells[j];
+            cells[j] = swap;
+        }
+        return count;
+    }
+}
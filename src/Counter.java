@@ -50,6 +50,15 @@ public class Counter
         count++;
     }
 
+    /**
+     * Increment the current count by the given amount.
+     * @param amount How much to add.
+     */
+    public void increment(int amount)
+    {
+        count += amount;
+    }
+
     /**
      * Reset the current count to zero.
      */
@@ -33,10 +33,11 @@ public class Deer extends Animal
     private static final int MAX_STEPS_WITHOUT_EATING = 15;
     // What kinds of plants deer eat.
     private static final Class[] EDIBLE_VEGETATION = {Plant.class};
-    // The field where deer look for food.
-    private static Field huntingField;
     // The default color of all deer.
     public static final Color DEFAULT_COLOR = Color.GREEN;
+    // The traits shared by all deer.
+    public static final SpeciesTraits TRAITS = new SpeciesTraits(Deer.class, BREEDING_AGE, MAX_AGE,
+            BREEDING_PROBABILITY, MAX_LITTER_SIZE, MAX_STEPS_WITHOUT_EATING, FOOD_VALUE, false, EDIBLE_VEGETATION);
 
 
     /**
@@ -52,22 +53,13 @@ public class Deer extends Animal
         super(randomAge, field, location);
     }
 
-    /**
-     * Set a field where deer look for food.
-     * field A new hunting field.
-     */
-    public static void setHuntingField(Field field)
-    {
-        huntingField = field;
-    }
-
     /**
      * Return a field where deer look for food.
      * @return A hunting field
      */
     public Field getHuntingField()
     {
-        return huntingField;
+        return getField().getHuntingField(Deer.class);
     }
 
     /**
@@ -144,15 +136,6 @@ public class Deer extends Animal
         return MAX_AGE;
     }
 
-    /**
-     * Return an array of Classes, whose instances a deer eats.
-     * @return An array of type Class.
-     */
-    protected Class[] retrieveEdible()
-    {
-        return EDIBLE_VEGETATION;
-    }
-
     /**
      * Returns the default color of a deer.
      * @return default color.
@@ -1,3 +1,5 @@
+import java.util.List;
+
 /**
  * Abstract class for diseases.
  * Diseases can infect animals and can have various effects on them.
@@ -9,12 +11,16 @@
  */
 public abstract class Disease
 {
+    // Whether the disease can infect each registered species, by species id.
+    // Built again when a species registered after it was built is asked about.
+    private volatile boolean[] infectable;
+
     /**
      * Creates an object of type Disease.
      */
     public Disease()
     {
-        // Nothing to initialise.
+        infectable = new boolean[0];
     }
 
     /**
@@ -24,8 +30,37 @@ public abstract class Disease
      */
     public boolean canInfect(Object animal)
     {
-        for(Class animalClass : getAnimalsItCanInfect()) {
-            if(animal != null && animalClass.isInstance(animal)) {
+        return animal instanceof LivingBeing && canInfectSpecies(((LivingBeing) animal).getSpeciesId());
+    }
+
+    /**
+     * Check if members of a registered species can be infected by a disease.
+     * @param speciesId The id of the species that is checked (see SpeciesRegistry).
+     * @return true if it can infect members of this species.
+     */
+    public boolean canInfectSpecies(int speciesId)
+    {
+        boolean[] species = infectable;
+        if(speciesId >= species.length) {
+            List<SpeciesTraits> registered = SpeciesRegistry.getSpecies();
+            species = new boolean[registered.size()];
+            for(int id = 0; id < species.length; id++) {
+                species[id] = canInfectSpecies(registered.get(id).getSpeciesClass());
+            }
+            infectable = species;
+        }
+        return species[speciesId];
+    }
+
+    /**
+     * Check if members of the specified species can be infected by a disease.
+     * @param speciesClass The class of the species that is checked.
+     * @return true if it can infect members of this species.
+     */
+    public boolean canInfectSpecies(Class<?> speciesClass)
+    {
+        for(Class<?> animalClass : getAnimalsItCanInfect()) {
+            if(speciesClass != null && animalClass.isAssignableFrom(speciesClass)) {
                 return true;
             }
         }
@@ -40,6 +75,13 @@ public abstract class Disease
      */
     public abstract void act(Animal animal);
 
+    /**
+     * Used to act on the animal in a cell of a world store.
+     * @param world The world store holding the animal.
+     * @param cell The cell of the animal this disease acts on.
+     */
+    public abstract void act(WorldStore world, long cell);
+
     /**
      * Return the infection probability of the disease.
      * @return double
@@ -0,0 +1,138 @@
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * The aggregated outcome of the runs of an ensemble. Run summaries are
+ * added as they arrive, from any thread, and are not kept: only running
+ * totals are, so the memory used does not grow with the number of runs.
+ *
+ * @author Flavio Melinte Citea and Vakaris Paulavičius
+ * @version 1.0
+ */
+public class EnsembleResult implements Consumer<RunSummary>
+{
+    // The species whose populations are aggregated.
+    private final List<Class> species;
+    // The number of steps between two samples.
+    private final int sampleInterval;
+    // The number of runs added, and how many of them stopped being viable.
+    private int runs, extinctRuns;
+    // The sum, minimum and maximum of the extinction steps of extinct runs.
+    private long extinctionStepSum;
+    private int minExtinctionStep, maxExtinctionStep;
+    // The sum of the populations of each species at each sample, indexed [species][sample].
+    private final long[][] populationSums;
+    // The number of runs that reached each sample.
+    private final int[] sampleRuns;
+
+    /**
+     * Create an empty result.
+     * @param species The species whose populations are aggregated.
+     * @param sampleInterval The number of steps between two samples.
+     * @param samples The largest number of samples of a run.
+     */
+    public EnsembleResult(List<Class> species, int sampleInterval, int samples)
+    {
+        this.species = species;
+        this.sampleInterval = sampleInterval;
+        populationSums = new long[species.size()][samples];
+        sampleRuns = new int[samples];
+        minExtinctionStep = Integer.MAX_VALUE;
+        maxExtinctionStep = -1;
+    }
+
+    /**
+     * Add the summary of a run to the result.
+     * @param summary The summary of the run.
+     */
+    public synchronized void accept(RunSummary summary)
+    {
+        runs++;
+        if(summary.isExtinct()) {
+            int step = summary.getExtinctionStep();
+            extinctRuns++;
+            extinctionStepSum += step;
+            minExtinctionStep = Math.min(minExtinctionStep, step);
+            maxExtinctionStep = Math.max(maxExtinctionStep, step);
+        }
+        int samples = Math.min(summary.getSampleCount(), sampleRuns.length);
+        for(int sample = 0; sample < samples; sample++) {
+            sampleRuns[sample]++;
+            for(int index = 0; index < populationSums.length; index++) {
+                populationSums[index][sample] += summary.getPopulation(index, sample);
+            }
+        }
+    }
+
+    /**
+     * Return the number of runs added.
+     * @return The number of runs.
+     */
+    public synchronized int getRuns()
+    {
+        return runs;
+    }
+
+    /**
+     * Return the number of runs that stopped being viable.
+     * @return The number of extinct runs.
+     */
+    public synchronized int getExtinctRuns()
+    {
+        return extinctRuns;
+    }
+
+    /**
+     * Return the mean step at which extinct runs stopped being viable.
+     * @return The mean extinction step, or NaN if no run was extinct.
+     */
+    public synchronized double getMeanExtinctionStep()
+    {
+        return extinctRuns == 0 ? Double.NaN : (double) extinctionStepSum / extinctRuns;
+    }
+
+    /**
+     * Return the mean population of a species at a sample, over the runs
+     * that were still going at that sample.
+     * @param speciesIndex The index of the species.
+     * @param sample The index of the sample.
+     * @return The mean population, or NaN if no run reached the sample.
+     */
+    public synchronized double getMeanPopulation(int speciesIndex, int sample)
+    {
+        int reached = sampleRuns[sample];
+        return reached == 0 ? Double.NaN : (double) populationSums[speciesIndex][sample] / reached;
+    }
+
+    /**
+     * Describe the result: extinction statistics followed by the mean
+     * population of every species at every sample.
+     * @return A description of the result.
+     */
+    public synchronized String toString()
+    {
+        StringBuilder buffer = new StringBuilder();
+        buffer.append("Runs: ").append(runs).append('\n');
+        buffer.append("Extinct: ").append(extinctRuns);
+        if(extinctRuns > 0) {
+            buffer.append(" (step mean ").append(String.format("%.1f", getMeanExtinctionStep()));
+            buffer.append(", min ").append(minExtinctionStep);
+            buffer.append(", max ").append(maxExtinctionStep).append(')');
+        }
+        buffer.append('\n');
+
+        buffer.append("Step");
+        for(Class speciesClass : species) {
+            buffer.append('\t').append(speciesClass.getName());
+        }
+        buffer.append('\n');
+        for(int sample = 0; sample < sampleRuns.length && sampleRuns[sample] > 0; sample++) {
+            buffer.append(sample * sampleInterval);
+            for(int index = 0; index < species.size(); index++) {
+                buffer.append('\t').append(String.format("%.1f", getMeanPopulation(index, sample)));
+            }
+            buffer.append('\n');
+        }
+        return buffer.toString();
+    }
+}
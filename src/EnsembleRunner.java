@@ -0,0 +1,194 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Runs many independent headless simulations with different seeds, on
+ * all available processors, e.g. to see how often and when species die
+ * out for a given set of parameters.
+ *
+ * Every run has its own world and its seed is derived from the seed of
+ * the ensemble and the number of the run, so an ensemble gives the same
+ * result however many threads it runs on. Runs are summarised as soon as
+ * they finish and the summary is handed on, so only the simulations
+ * currently running are held in memory.
+ *
+ * @author Flavio Melinte Citea and Vakaris Paulavičius
+ * @version 1.0
+ */
+public class EnsembleRunner
+{
+    // The default number of runs.
+    private static final int DEFAULT_RUNS = 100;
+    // The default number of steps of a run.
+    private static final int DEFAULT_STEPS = 4000;
+    // The default number of steps between two population samples.
+    private static final int DEFAULT_SAMPLE_INTERVAL = 50;
+    // The default depth and width of the worlds.
+    private static final int DEFAULT_DEPTH = 80;
+    private static final int DEFAULT_WIDTH = 120;
+    // The random stream the seeds of the runs are taken from.
+    private static final long RUN_STREAM = -4;
+
+    // The depth and width of the worlds.
+    private final int depth, width;
+    // The largest number of steps of a run.
+    private final int steps;
+    // The number of steps between two population samples.
+    private final int sampleInterval;
+    // The number of runs simulated at the same time.
+    private int threads;
+    // The species whose populations are sampled.
+    private final List<Class> species;
+
+    public static void main(String[] args)
+    {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_RUNS;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : Randomizer.getDefaultSeed();
+        EnsembleRunner runner = new EnsembleRunner(DEFAULT_DEPTH, DEFAULT_WIDTH, DEFAULT_STEPS,
+                DEFAULT_SAMPLE_INTERVAL);
+        System.out.print(runner.run(seed, runs));
+    }
+
+    /**
+     * Create a runner for ensembles of worlds of the given size.
+     * @param depth Depth of the worlds. Must be greater than zero.
+     * @param width Width of the worlds. Must be greater than zero.
+     * @param steps The largest number of steps of a run.
+     * @param sampleInterval The number of steps between two population samples.
+     */
+    public EnsembleRunner(int depth, int width, int steps, int sampleInterval)
+    {
+        this.depth = depth;
+        this.width = width;
+        this.steps = steps;
+        this.sampleInterval = Math.max(1, sampleInterval);
+        threads = Runtime.getRuntime().availableProcessors();
+        species = List.of(Lynx.class, Wolf.class, Deer.class, Hamster.class, Plant.class);
+    }
+
+    /**
+     * Set the number of runs simulated at the same time.
+     * @param threads The number of threads, by default the number of processors.
+     */
+    public void setThreads(int threads)
+    {
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Return the species whose populations are sampled, in the order of the summaries.
+     * @return The sampled species.
+     */
+    public List<Class> getSpecies()
+    {
+        return species;
+    }
+
+    /**
+     * Run an ensemble and aggregate its runs.
+     * @param seed The seed of the ensemble.
+     * @param runs The number of runs.
+     * @return The aggregated result.
+     */
+    public EnsembleResult run(long seed, int runs)
+    {
+        EnsembleResult result = new EnsembleResult(species, sampleInterval, steps / sampleInterval + 1);
+        run(seed, runs, result);
+        return result;
+    }
+
+    /**
+     * Run an ensemble, handing the summary of every run on as soon as it finishes.
+     * Summaries arrive in no particular order and from several threads.
+     * @param seed The seed of the ensemble.
+     * @param runs The number of runs.
+     * @param summaries Receives the summary of every run.
+     */
+    public void run(long seed, int runs, Consumer<RunSummary> summaries)
+    {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for(int run = 0; run < runs; run++) {
+                int number = run;
+                futures.add(pool.submit(() -> summaries.accept(runOne(number, runSeed(seed, number)))));
+            }
+            for(Future<?> future : futures) {
+                future.get();
+            }
+        }
+        catch(ExecutionException e) {
+            throw new IllegalStateException("A run of the ensemble failed", e.getCause());
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Simulate a single run until it stops being viable or reaches the last step.
+     * @param run The number of the run within its ensemble.
+     * @param seed The seed of the run.
+     * @return The summary of the run.
+     */
+    public RunSummary runOne(int run, long seed)
+    {
+        Simulator simulator = new Simulator(depth, width, true, seed);
+        int[][] populations = new int[species.size()][steps / sampleInterval + 1];
+        int samples = 0;
+        int extinctionStep = -1;
+
+        sample(simulator, populations, samples++);
+        while(extinctionStep < 0 && simulator.getStep() < steps) {
+            simulator.simulateOneStep();
+            if(simulator.getStep() % sampleInterval == 0) {
+                sample(simulator, populations, samples++);
+            }
+            if(!simulator.isViable()) {
+                extinctionStep = simulator.getStep();
+            }
+        }
+
+        for(int index = 0; index < populations.length; index++) {
+            populations[index] = Arrays.copyOf(populations[index], samples);
+        }
+        return new RunSummary(run, seed, extinctionStep, sampleInterval, populations);
+    }
+
+    // PRIVATE METHODS
+
+    /**
+     * Record the current population of every sampled species.
+     * @param simulator The simulation.
+     * @param populations The samples, indexed [species][sample].
+     * @param sample The index of the sample.
+     */
+    private void sample(Simulator simulator, int[][] populations, int sample)
+    {
+        for(int index = 0; index < species.size(); index++) {
+            Class speciesClass = species.get(index);
+            populations[index][sample] = simulator.getAnimalField().getCount(speciesClass)
+                    + simulator.getPlantField().getCount(speciesClass);
+        }
+    }
+
+    /**
+     * Return the seed of a run.
+     * @param seed The seed of the ensemble.
+     * @param run The number of the run.
+     * @return The seed of the run.
+     */
+    private static long runSeed(long seed, int run)
+    {
+        return Randomizer.key(seed, RUN_STREAM, run);
+    }
+}
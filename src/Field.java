@@ -1,28 +1,60 @@
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
 
 /**
  * Represent a rectangular grid of field positions.
  * Each position is able to store a single object.
  * Fields also hold a TimeTracker, which tracks the time of day.
  *
+ * The field keeps count of how many objects of each class it holds,
+ * updated as objects are placed and cleared, so that the population
+ * can be read without scanning the grid. The counts may be updated
+ * from several threads at once.
+ *
  * @author David J. Barnes and Michael Kölling, Flavio Melinte Citea and Vakaris Paulavičius
- * @version 2.0
+ * @version 3.0
  */
 public class Field
 {
-    // A random number generator for providing random locations.
-    private static final Random rand = Randomizer.getRandom();
+    // The largest number of locations adjacent to a location.
+    public static final int MAX_ADJACENT = 8;
+    // The largest number of diseases of a world, one per bit of a disease mask.
+    public static final int MAX_DISEASES = 32;
+    // Row and column offsets of the adjacent locations.
+    private static final int[] ROW_OFFSETS = {-1, -1, -1, 0, 0, 1, 1, 1};
+    private static final int[] COL_OFFSETS = {-1, 0, 1, -1, 1, -1, 0, 1};
+    // Every ordering of the adjacent locations, MAX_ADJACENT offset indexes per ordering.
+    private static final byte[] PERMUTATIONS = createPermutations();
+    // The number of orderings in PERMUTATIONS.
+    private static final int PERMUTATION_COUNT = PERMUTATIONS.length / MAX_ADJACENT;
 
     // The depth and width of the field.
     private int depth, width;
-    // Storage for the animals.
-    private Object[][] field;
+    // Storage for the animals, one element per cell (row * width + col).
+    private Object[] field;
+    // The canonical location of every cell, shared by all layers of the same world.
+    private Location[] locations;
     // Time tracking object of the field.
     private TimeTracker timeTracker;
+    // The number of objects of each class in the field.
+    private ConcurrentHashMap<Class, LongAdder> population;
+    // The field each species looks for food in, shared by all layers of the same world.
+    private Map<Class, Field> huntingFields;
+    // The diseases of the world; bit d of an animal's disease mask stands for the disease at index d.
+    private List<Disease> diseases;
+    // The weather of the world, as it affects each species.
+    private Climate climate;
+    // The automaton the plants of this layer grow in instead of being objects, or null.
+    private PlantAutomaton plantAutomaton;
 
     /**
      * Represent a field of the given dimensions.
@@ -35,7 +67,36 @@ public class Field
         this.depth = depth;
         this.width = width;
         this.timeTracker = timeTracker;
-        field = new Object[depth][width];
+        field = new Object[depth * width];
+        population = new ConcurrentHashMap<>();
+        huntingFields = new HashMap<>();
+        diseases = new ArrayList<>();
+        climate = new Climate();
+        locations = new Location[depth * width];
+        for(int row = 0; row < depth; row++) {
+            for(int col = 0; col < width; col++) {
+                locations[row * width + col] = new Location(row, col);
+            }
+        }
+    }
+
+    /**
+     * Represent a new, empty layer of the same world as another field.
+     * Both fields share their dimensions, time tracker, locations, hunting
+     * fields, diseases and climate, so the same location object stands for the same place in either layer.
+     * @param other A field of the same world.
+     */
+    public Field(Field other)
+    {
+        depth = other.depth;
+        width = other.width;
+        timeTracker = other.timeTracker;
+        locations = other.locations;
+        huntingFields = other.huntingFields;
+        diseases = other.diseases;
+        climate = other.climate;
+        field = new Object[depth * width];
+        population = new ConcurrentHashMap<>();
     }
 
     /**
@@ -47,15 +108,131 @@ public class Field
         return timeTracker.isNight();
     }
 
+    /**
+     * Set the field where a species of this world looks for food.
+     * The setting is seen from every layer of the world.
+     * @param species The class of the species, e.g. Wolf.class.
+     * @param huntingField The field it looks for food in.
+     */
+    public void setHuntingField(Class species, Field huntingField)
+    {
+        huntingFields.put(species, huntingField);
+    }
+
+    /**
+     * Return the field where a species of this world looks for food.
+     * @param species The class of the species.
+     * @return The hunting field, or null if none was set.
+     */
+    public Field getHuntingField(Class species)
+    {
+        return huntingFields.get(species);
+    }
+
+    /**
+     * Set the diseases of this world. A disease is known to the animals by its
+     * index in the list, and the setting is seen from every layer of the world.
+     * @param newDiseases The diseases, at most MAX_DISEASES of them.
+     */
+    public void setDiseases(List<Disease> newDiseases)
+    {
+        if(newDiseases.size() > MAX_DISEASES) {
+            throw new IllegalArgumentException("A world cannot have more than " + MAX_DISEASES + " diseases");
+        }
+        diseases.clear();
+        diseases.addAll(newDiseases);
+    }
+
+    /**
+     * Return the diseases of this world.
+     * @return The diseases, by index. The list cannot be changed.
+     */
+    public List<Disease> getDiseases()
+    {
+        return Collections.unmodifiableList(diseases);
+    }
+
+    /**
+     * Return the disease at an index.
+     * @param index The index of the disease.
+     * @return The disease.
+     */
+    public Disease getDisease(int index)
+    {
+        return diseases.get(index);
+    }
+
+    /**
+     * Return the index of a disease of this world.
+     * @param disease The disease.
+     * @return Its index, or -1 if it is not a disease of this world.
+     */
+    public int indexOf(Disease disease)
+    {
+        return diseases.indexOf(disease);
+    }
+
+    /**
+     * Return the climate of this world, which is the same from every layer.
+     * @return The climate.
+     */
+    public Climate getClimate()
+    {
+        return climate;
+    }
+
+    /**
+     * Let the plants of this layer grow in an automaton rather than be
+     * objects in the field. Animals hunting in this layer then eat from it.
+     * @param automaton The automaton, or null for plants that are objects.
+     */
+    public void setPlantAutomaton(PlantAutomaton automaton)
+    {
+        plantAutomaton = automaton;
+    }
+
+    /**
+     * Return the automaton the plants of this layer grow in.
+     * @return The automaton, or null if the plants are objects in the field.
+     */
+    public PlantAutomaton getPlantAutomaton()
+    {
+        return plantAutomaton;
+    }
+
     /**
      * Empty the field.
      */
     public void clear()
     {
-        for(int row = 0; row < depth; row++) {
-            for(int col = 0; col < width; col++) {
-                field[row][col] = null;
-            }
+        Arrays.fill(field, null);
+        for(LongAdder count : population.values()) {
+            count.reset();
+        }
+    }
+
+    /**
+     * Make this field hold copies of the objects of another field of the
+     * same size, in the same cells, and count them as the objects they are
+     * copies of.
+     * @param other The field to copy.
+     * @param copy Returns the copy of an object of the other field.
+     */
+    public void copyFrom(Field other, UnaryOperator<Object> copy)
+    {
+        if(other.depth != depth || other.width != width) {
+            throw new IllegalArgumentException("Cannot copy a " + other.depth + "x" + other.width
+                    + " field into a " + depth + "x" + width + " one");
+        }
+        for(int cell = 0; cell < field.length; cell++) {
+            Object object = other.field[cell];
+            field[cell] = object == null ? null : copy.apply(object);
+        }
+        for(LongAdder count : population.values()) {
+            count.reset();
+        }
+        for(Map.Entry<Class, LongAdder> entry : other.population.entrySet()) {
+            countOf(entry.getKey()).add(entry.getValue().sum());
         }
     }
 
@@ -65,7 +242,20 @@ public class Field
      */
     public void clear(Location location)
     {
-        field[location.getRow()][location.getCol()] = null;
+        clear(cellOf(location));
+    }
+
+    /**
+     * Clear the given cell.
+     * @param cell The cell index.
+     */
+    public void clear(int cell)
+    {
+        Object old = field[cell];
+        if(old != null) {
+            field[cell] = null;
+            countOf(old.getClass()).decrement();
+        }
     }
 
     /**
@@ -78,7 +268,7 @@ public class Field
      */
     public void place(Object animal, int row, int col)
     {
-        place(animal, new Location(row, col));
+        place(animal, cellOf(row, col));
     }
 
     /**
@@ -90,7 +280,28 @@ public class Field
      */
     public void place(Object animal, Location location)
     {
-        field[location.getRow()][location.getCol()] = animal;
+        place(animal, cellOf(location));
+    }
+
+    /**
+     * Place an animal in the given cell.
+     * If there is already an animal in the cell it will
+     * be lost.
+     * @param animal The animal to be placed.
+     * @param cell The cell index.
+     */
+    public void place(Object animal, int cell)
+    {
+        Object old = field[cell];
+        if(old != animal) {
+            field[cell] = animal;
+            if(old != null) {
+                countOf(old.getClass()).decrement();
+            }
+            if(animal != null) {
+                countOf(animal.getClass()).increment();
+            }
+        }
     }
 
     /**
@@ -100,7 +311,7 @@ public class Field
      */
     public Object getObjectAt(Location location)
     {
-        return getObjectAt(location.getRow(), location.getCol());
+        return field[cellOf(location)];
     }
 
     /**
@@ -111,7 +322,83 @@ public class Field
      */
     public Object getObjectAt(int row, int col)
     {
-        return field[row][col];
+        return field[cellOf(row, col)];
+    }
+
+    /**
+     * Return the animal in the given cell, if any.
+     * @param cell The cell index.
+     * @return The animal in the given cell, or null if there is none.
+     */
+    public Object getObjectAt(int cell)
+    {
+        return field[cell];
+    }
+
+    /**
+     * Return the number of objects of the given class in the field.
+     * @param type The class of the objects, e.g. Wolf.class.
+     * @return How many of them are in the field.
+     */
+    public int getCount(Class type)
+    {
+        LongAdder count = population.get(type);
+        return count == null ? 0 : count.intValue();
+    }
+
+    /**
+     * Return the classes of all objects that have been placed in the field.
+     * Classes stay in the set after their count drops to zero.
+     * @return The counted classes.
+     */
+    public Set<Class> getCountedClasses()
+    {
+        return Collections.unmodifiableSet(population.keySet());
+    }
+
+    /**
+     * Return the cell index of a location. The row and column are
+     * packed into a single int: row * width + col.
+     * @param row The row.
+     * @param col The column.
+     * @return The cell index of the location.
+     */
+    public int cellOf(int row, int col)
+    {
+        return row * width + col;
+    }
+
+    /**
+     * Return the cell index of a location.
+     * @param location The location.
+     * @return The cell index of the location.
+     */
+    public int cellOf(Location location)
+    {
+        return cellOf(location.getRow(), location.getCol());
+    }
+
+    /**
+     * Return the canonical location of a cell.
+     * The same location object is returned every time, so no
+     * location is created after the field has been set up.
+     * @param cell The cell index.
+     * @return The location of the cell.
+     */
+    public Location getLocation(int cell)
+    {
+        return locations[cell];
+    }
+
+    /**
+     * Return the canonical location of a row and column.
+     * @param row The row.
+     * @param col The column.
+     * @return The location of that row and column.
+     */
+    public Location getLocation(int row, int col)
+    {
+        return locations[cellOf(row, col)];
     }
 
     /**
@@ -124,8 +411,18 @@ public class Field
      */
     public Location randomAdjacentLocation(Location location)
     {
-        List<Location> adjacent = adjacentLocations(location);
-        return adjacent.get(0);
+        int row = location.getRow();
+        int col = location.getCol();
+        int start = randomPermutation();
+        for(int i = start; i < start + MAX_ADJACENT; i++) {
+            int nextRow = row + ROW_OFFSETS[PERMUTATIONS[i]];
+            int nextCol = col + COL_OFFSETS[PERMUTATIONS[i]];
+            if(isInside(nextRow, nextCol)) {
+                return getLocation(nextRow, nextCol);
+            }
+        }
+        // Only a 1x1 field has no adjacent locations.
+        return location;
     }
 
     /**
@@ -136,11 +433,10 @@ public class Field
     public List<Location> getFreeAdjacentLocations(Location location)
     {
         List<Location> free = new LinkedList<>();
-        List<Location> adjacent = adjacentLocations(location);
-        for(Location next : adjacent) {
-            if(getObjectAt(next) == null) {
-                free.add(next);
-            }
+        int[] cells = new int[MAX_ADJACENT];
+        int count = freeAdjacentCells(location, cells);
+        for(int i = 0; i < count; i++) {
+            free.add(getLocation(cells[i]));
         }
         return free;
     }
@@ -155,14 +451,66 @@ public class Field
      */
     public Location freeAdjacentLocation(Location location)
     {
-        // The available free ones.
-        List<Location> free = getFreeAdjacentLocations(location);
-        if(free.size() > 0) {
-            return free.get(0);
+        int row = location.getRow();
+        int col = location.getCol();
+        int start = randomPermutation();
+        for(int i = start; i < start + MAX_ADJACENT; i++) {
+            int nextRow = row + ROW_OFFSETS[PERMUTATIONS[i]];
+            int nextCol = col + COL_OFFSETS[PERMUTATIONS[i]];
+            if(isInside(nextRow, nextCol) && field[cellOf(nextRow, nextCol)] == null) {
+                return getLocation(nextRow, nextCol);
+            }
         }
-        else {
-            return null;
+        return null;
+    }
+
+    /**
+     * Fill an array with the cells adjacent to the given location, in a random order.
+     * The location itself is not included. All cells lie within the grid.
+     * Nothing is allocated: the order is taken from a table of all orderings of
+     * the neighbours, chosen with a single random number. Several other methods
+     * rely on the cells being in a random order.
+     * @param location The location from which to generate adjacencies.
+     * @param cells An array of at least MAX_ADJACENT elements to receive the cell indexes.
+     * @return The number of adjacent cells.
+     */
+    public int adjacentCells(Location location, int[] cells)
+    {
+        int row = location.getRow();
+        int col = location.getCol();
+        int count = 0;
+        int start = randomPermutation();
+        for(int i = start; i < start + MAX_ADJACENT; i++) {
+            int nextRow = row + ROW_OFFSETS[PERMUTATIONS[i]];
+            int nextCol = col + COL_OFFSETS[PERMUTATIONS[i]];
+            // Exclude invalid locations.
+            if(isInside(nextRow, nextCol)) {
+                cells[count++] = cellOf(nextRow, nextCol);
+            }
         }
+        return count;
+    }
+
+    /**
+     * Fill an array with the free cells adjacent to the given location, in a random order.
+     * @param location Get cells adjacent to this.
+     * @param cells An array of at least MAX_ADJACENT elements to receive the cell indexes.
+     * @return The number of free adjacent cells.
+     */
+    public int freeAdjacentCells(Location location, int[] cells)
+    {
+        int row = location.getRow();
+        int col = location.getCol();
+        int count = 0;
+        int start = randomPermutation();
+        for(int i = start; i < start + MAX_ADJACENT; i++) {
+            int nextRow = row + ROW_OFFSETS[PERMUTATIONS[i]];
+            int nextCol = col + COL_OFFSETS[PERMUTATIONS[i]];
+            if(isInside(nextRow, nextCol) && field[cellOf(nextRow, nextCol)] == null) {
+                cells[count++] = cellOf(nextRow, nextCol);
+            }
+        }
+        return count;
     }
 
     /**
@@ -178,24 +526,11 @@ public class Field
         // The list of locations to be returned.
         List<Location> locations = new LinkedList<>();
         if(location != null) {
-            int row = location.getRow();
-            int col = location.getCol();
-            for(int roffset = -1; roffset <= 1; roffset++) {
-                int nextRow = row + roffset;
-                if(nextRow >= 0 && nextRow < depth) {
-                    for(int coffset = -1; coffset <= 1; coffset++) {
-                        int nextCol = col + coffset;
-                        // Exclude invalid locations and the original location.
-                        if(nextCol >= 0 && nextCol < width && (roffset != 0 || coffset != 0)) {
-                            locations.add(new Location(nextRow, nextCol));
-                        }
-                    }
-                }
+            int[] cells = new int[MAX_ADJACENT];
+            int count = adjacentCells(location, cells);
+            for(int i = 0; i < count; i++) {
+                locations.add(getLocation(cells[i]));
             }
-
-            // Shuffle the list. Several other methods rely on the list
-            // being in a random order.
-            Collections.shuffle(locations, rand);
         }
         return locations;
     }
@@ -217,4 +552,81 @@ public class Field
     {
         return width;
     }
-}
\ No newline at end of file
+
+    /**
+     * Pick one of the orderings of the adjacent locations at random.
+     * The numbers come from the stream of the current thread.
+     * @return The index of the first offset of the ordering in PERMUTATIONS.
+     */
+    private int randomPermutation()
+    {
+        return Randomizer.current().nextInt(PERMUTATION_COUNT) * MAX_ADJACENT;
+    }
+
+    /**
+     * Return the counter of a class, creating it if needed.
+     * @param type The class of the objects.
+     * @return The counter.
+     */
+    private LongAdder countOf(Class type)
+    {
+        LongAdder count = population.get(type);
+        if(count == null) {
+            count = population.computeIfAbsent(type, key -> new LongAdder());
+        }
+        return count;
+    }
+
+    /**
+     * Check whether a row and column lie within the grid.
+     * @param row The row.
+     * @param col The column.
+     * @return true if the location is inside the field.
+     */
+    private boolean isInside(int row, int col)
+    {
+        return row >= 0 && row < depth && col >= 0 && col < width;
+    }
+
+    /**
+     * Create a table of all the orderings of the adjacent locations, so that
+     * a random ordering can be picked with a single random number.
+     * @return MAX_ADJACENT offset indexes for each of the MAX_ADJACENT! orderings.
+     */
+    private static byte[] createPermutations()
+    {
+        int count = 1;
+        for(int i = 2; i <= MAX_ADJACENT; i++) {
+            count *= i;
+        }
+        byte[] permutations = new byte[count * MAX_ADJACENT];
+        byte[] current = new byte[MAX_ADJACENT];
+        for(int i = 0; i < MAX_ADJACENT; i++) {
+            current[i] = (byte) i;
+        }
+        for(int p = 0; p < count; p++) {
+            System.arraycopy(current, 0, permutations, p * MAX_ADJACENT, MAX_ADJACENT);
+            // Step to the next ordering in lexicographic order.
+            int i = MAX_ADJACENT - 2;
+            while(i >= 0 && current[i] >= current[i + 1]) {
+                i--;
+            }
+            if(i < 0) {
+                break;
+            }
+            int j = MAX_ADJACENT - 1;
+            while(current[j] <= current[i]) {
+                j--;
+            }
+            byte swap = current[i];
+            current[i] = current[j];
+            current[j] = swap;
+            for(int lo = i + 1, hi = MAX_ADJACENT - 1; lo < hi; lo++, hi--) {
+                swap = current[lo];
+                current[lo] = current[hi];
+                current[hi] = swap;
+            }
+        }
+        return permutations;
+    }
+}
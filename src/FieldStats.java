@@ -65,6 +65,16 @@ public class FieldStats
      * @param animalClass The class of animal to increment.
      */
     public void incrementCount(Class animalClass)
+    {
+        incrementCount(animalClass, 1);
+    }
+
+    /**
+     * Increment the count for one class of animal by the given amount.
+     * @param animalClass The class of animal to increment.
+     * @param amount How much to add to the count.
+     */
+    public void incrementCount(Class animalClass, int amount)
     {
         Counter count = counters.get(animalClass);
         if(count == null) {
@@ -73,7 +83,7 @@ public class FieldStats
             count = new Counter(animalClass.getName());
             counters.put(animalClass, count);
         }
-        count.increment();
+        count.increment(amount);
     }
 
     /**
@@ -87,18 +97,17 @@ public class FieldStats
     /**
      * Determine whether the simulation is still viable.
      * I.e., should it continue to run.
+     * The counts the field keeps are read directly, and the counters are left
+     * alone, so the answer is always that of the field given, and it may be
+     * asked on another thread than the one the counters are used on.
      * @return true If there is more than one species alive.
      */
     public boolean isViable(Field field)
     {
         // How many counts are non-zero.
         int nonZero = 0;
-        if(!countsValid) {
-            generateCounts(field);
-        }
-        for(Class key : counters.keySet()) {
-            Counter info = counters.get(key);
-            if(info.getCount() > 0) {
+        for(Class animalClass : field.getCountedClasses()) {
+            if(field.getCount(animalClass) > 0) {
                 nonZero++;
             }
         }
@@ -107,21 +116,17 @@ public class FieldStats
 
     /**
      * Generate counts of the number of animals.
-     * These are not kept up to date as animals
-     * are placed in the field, but only when a request
-     * is made for the information.
+     * These are copied from the counts the field keeps
+     * up to date as animals are placed and cleared, so
+     * the cost depends on the number of species rather
+     * than on the size of the field.
      * @param field The field to generate the stats for.
      */
     private void generateCounts(Field field)
     {
         reset();
-        for(int row = 0; row < field.getDepth(); row++) {
-            for(int col = 0; col < field.getWidth(); col++) {
-                Object animal = field.getObjectAt(row, col);
-                if(animal != null) {
-                    incrementCount(animal.getClass());
-                }
-            }
+        for(Class animalClass : field.getCountedClasses()) {
+            incrementCount(animalClass, field.getCount(animalClass));
         }
         countsValid = true;
     }
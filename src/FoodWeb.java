@@ -0,0 +1,60 @@
+import java.util.List;
+
+/**
+ * Who eats whom, for species numbered with dense ids (see SpeciesRegistry).
+ * The diet of every species is a row of bits, one bit per species it could
+ * eat, so whether one species eats another is a single bit test however
+ * many species there are.
+ *
+ * A food web does not change; registering a species builds a new one.
+ *
+ * @author Flavio Melinte Citea and Vakaris Paulavičius
+ * @version 1.0
+ */
+public class FoodWeb
+{
+    // The number of species in the web.
+    private final int speciesCount;
+    // The number of longs in the row of a species.
+    private final int rowLength;
+    // The diets, one row of rowLength longs per species; bit prey of row predator is set if it eats prey.
+    private final long[] diets;
+
+    /**
+     * Create the food web of some species.
+     * @param traits The traits of the species, indexed by id.
+     */
+    public FoodWeb(List<SpeciesTraits> traits)
+    {
+        speciesCount = traits.size();
+        rowLength = (speciesCount + 63) >>> 6;
+        diets = new long[speciesCount * rowLength];
+        for(int predator = 0; predator < speciesCount; predator++) {
+            for(int prey = 0; prey < speciesCount; prey++) {
+                if(traits.get(predator).eats(traits.get(prey).getSpeciesClass())) {
+                    diets[predator * rowLength + (prey >>> 6)] |= 1L << prey;
+                }
+            }
+        }
+    }
+
+    /**
+     * Check whether members of one species eat members of another.
+     * @param predator The id of the species that would eat.
+     * @param prey The id of the species that would be eaten.
+     * @return true if the predator eats the prey.
+     */
+    public boolean canEat(int predator, int prey)
+    {
+        return (diets[predator * rowLength + (prey >>> 6)] & (1L << prey)) != 0;
+    }
+
+    /**
+     * Return the number of species in the web.
+     * @return The number of species.
+     */
+    public int getSpeciesCount()
+    {
+        return speciesCount;
+    }
+}
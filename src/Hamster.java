@@ -34,10 +34,11 @@ public class Hamster extends Animal
     private static final int MAX_STEPS_WITHOUT_EATING = 15;
     // What kinds of plants Hamsters eat.
     private static final Class[] EDIBLE_VEGETATION = {Plant.class};
-    // The field where foxes look for food.
-    private static Field huntingField;
     // The default color of all Hamsters.
     public static final Color DEFAULT_COLOR = Color.YELLOW;
+    // The traits shared by all Hamsters.
+    public static final SpeciesTraits TRAITS = new SpeciesTraits(Hamster.class, BREEDING_AGE, MAX_AGE,
+            BREEDING_PROBABILITY, MAX_LITTER_SIZE, MAX_STEPS_WITHOUT_EATING, FOOD_VALUE, false, EDIBLE_VEGETATION);
 
     /**
      * Create a new Hamster. A Hamster may be created with age
@@ -52,22 +53,13 @@ public class Hamster extends Animal
         super(randomAge, field, location);
     }
 
-    /**
-     * Set a field where Hamsters look for food.
-     * field A new hunting field.
-     */
-    public static void setHuntingField(Field field)
-    {
-        huntingField = field;
-    }
-
     /**
      * Return a field where Hamsters look for food.
      * @return A hunting field
      */
     public Field getHuntingField()
     {
-        return huntingField;
+        return getField().getHuntingField(Hamster.class);
     }
 
     /**
@@ -144,15 +136,6 @@ public class Hamster extends Animal
         return MAX_AGE;
     }
 
-    /**
-     * Return an array of Classes, whose instances a Hamster eats.
-     * @return An array of type Class.
-     */
-    protected Class[] retrieveEdible()
-    {
-        return EDIBLE_VEGETATION;
-    }
-
     /**
      * Returns the default color of a Hamster.
      * @return default color.
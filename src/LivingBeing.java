@@ -15,8 +15,11 @@ public abstract class LivingBeing
     private int maxAge;
     // The current food value of this living being
     private int foodValue;
-    // Set breeding probability of this living being.
+    // Set breeding probability of this living being, before the weather is taken into account.
     private double breedingProbability;
+    // The breeding probability under the weather, and the climate epoch it was worked out in.
+    private double weatheredBreedingProbability;
+    private int climateEpoch;
     // Current age.
     private int age;
     // Current location in a field.
@@ -25,8 +28,13 @@ public abstract class LivingBeing
     private Field field;
     // Current status of this living being.
     private boolean alive;
-    // Randomizer for living beings
-    private static final Random rand = Randomizer.getRandom();
+    // An identifier of this living being, which picks its stream of random numbers.
+    private long id;
+    // The id of the species of this living being (see SpeciesRegistry).
+    private final int speciesId;
+    // Scratch space for the cells around a living being (and its own cell), one array per thread.
+    private static final ThreadLocal<int[]> adjacentCells =
+            ThreadLocal.withInitial(() -> new int[Field.MAX_ADJACENT + 1]);
 
     /**
      * Create a new living being (animal/plant).
@@ -37,10 +45,15 @@ public abstract class LivingBeing
      */
     public LivingBeing(boolean randomAge, Field field, Location location)
     {
+        // The id is drawn from the stream of whoever creates this living being.
+        id = getRand().nextLong();
+        speciesId = SpeciesRegistry.getId(getClass());
+
         // At first give the instance fields the default values.
         maxAge = getDefaultMaxAge();
         foodValue = getDefaultFoodValue();
         breedingProbability = getDefaultBreedingProbability();
+        climateEpoch = -1;
 
         this.field = field;
         setLocation(location);
@@ -91,16 +104,37 @@ public abstract class LivingBeing
     }
 
     /**
-     * Return the breeding probability of this living being.
+     * Return the breeding probability of this living being under the current
+     * weather of its world. It is only worked out again when the weather has
+     * changed since it was last read.
      * @return The breeding probability.
      */
     public double getBreedingProbability()
+    {
+        if(field == null) {
+            return breedingProbability;
+        }
+        Climate climate = field.getClimate();
+        if(climateEpoch != climate.getEpoch()) {
+            weatheredBreedingProbability = Math.min(1.0,
+                    breedingProbability * climate.getBreedingModifier(speciesId));
+            climateEpoch = climate.getEpoch();
+        }
+        return weatheredBreedingProbability;
+    }
+
+    /**
+     * Return the breeding probability of this living being, whatever the weather.
+     * @return The breeding probability before the weather is taken into account.
+     */
+    public double getBaseBreedingProbability()
     {
         return breedingProbability;
     }
 
     /**
      * Set the breeding probability of this living being to a new value.
+     * The weather is applied on top of it.
      * @return newProbability A new value to replace with.
      */
     public void setBreedingProbability(double newProbability)
@@ -113,6 +147,7 @@ public abstract class LivingBeing
         }
 
         breedingProbability = newProbability;
+        climateEpoch = -1;
     }
 
     /**
@@ -208,13 +243,64 @@ public abstract class LivingBeing
         foodValue = getDefaultFoodValue();
     }
 
+    /**
+     * Return the identifier of this living being.
+     * @return The id.
+     */
+    public long getId()
+    {
+        return id;
+    }
+
+    /**
+     * Return the id of the species of this living being.
+     * @return The species id, as given by the SpeciesRegistry.
+     */
+    public int getSpeciesId()
+    {
+        return speciesId;
+    }
+
+    /**
+     * Give this living being the state it had when a snapshot was taken.
+     * The values are taken as they are, without the checks of the setters.
+     * @param id The identifier.
+     * @param age The current age.
+     * @param maxAge The maximum age.
+     * @param foodValue The food value.
+     * @param breedingProbability The breeding probability, before the weather is taken into account.
+     */
+    void restoreState(long id, int age, int maxAge, int foodValue, double breedingProbability)
+    {
+        this.id = id;
+        this.age = age;
+        this.maxAge = maxAge;
+        this.foodValue = foodValue;
+        this.breedingProbability = breedingProbability;
+        climateEpoch = -1;
+    }
+
     /**
      * Return a randomizer object for this living being.
+     * This is the stream of the thread the simulation is running on,
+     * which the simulation moves to this being's stream before it acts.
      * @return An object of type Random.
      */
     protected Random getRand()
     {
-        return rand;
+        return Randomizer.current();
+    }
+
+    /**
+     * Return scratch space to receive the cells around this living being,
+     * as filled in by Field.adjacentCells. The same array is returned on
+     * every call from the same thread, so its contents only last until the
+     * next neighbourhood query.
+     * @return An array of MAX_ADJACENT + 1 elements.
+     */
+    protected int[] getAdjacentCells()
+    {
+        return adjacentCells.get();
     }
 
     // ABSTRACT METHODS
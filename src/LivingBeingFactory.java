@@ -0,0 +1,20 @@
+/**
+ * Creates living beings of one species, e.g. Wolf::new. Factories are
+ * registered in the SpeciesRegistry, so that the simulation can create
+ * beings of any species without reflection.
+ *
+ * @author Flavio Melinte Citea and Vakaris Paulavičius
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface LivingBeingFactory
+{
+    /**
+     * Create a living being at a location in a field.
+     * @param randomAge true if the age should be randomly selected for the living being.
+     * @param field The field of the living being.
+     * @param location The location within the field.
+     * @return The new living being.
+     */
+    LivingBeing create(boolean randomAge, Field field, Location location);
+}
@@ -35,10 +35,11 @@ public class Lynx extends Animal
     private static final int FOOD_VALUE = 69;
     // What kind of prey Lynxes eat.
     private static final Class[] EDIBLE_PREY = {Hamster.class, Deer.class};
-    // The field where Lynxes look for food.
-    private static Field huntingField;
     // The default color of all Lynxes.
     public static final Color DEFAULT_COLOR = Color.BLUE;
+    // The traits shared by all Lynxes.
+    public static final SpeciesTraits TRAITS = new SpeciesTraits(Lynx.class, BREEDING_AGE, MAX_AGE,
+            BREEDING_PROBABILITY, MAX_LITTER_SIZE, MAX_STEPS_WITHOUT_EATING, FOOD_VALUE, true, EDIBLE_PREY);
 
     /**
      * Create a new Lynx. A Lynx may be created with age
@@ -53,22 +54,13 @@ public class Lynx extends Animal
         super(randomAge, field, location);
     }
 
-    /**
-     * Set a field where Lynxes look for food.
-     * field A new hunting field.
-     */
-    public static void setHuntingField(Field field)
-    {
-        huntingField = field;
-    }
-
     /**
      * Return a field where Lynxes look for food.
      * @return A hunting field
      */
     public Field getHuntingField()
     {
-        return huntingField;
+        return getField().getHuntingField(Lynx.class);
     }
 
     /**
@@ -145,15 +137,6 @@ public class Lynx extends Animal
         return MAX_AGE;
     }
 
-    /**
-     * Return an array of Classes, whose instances a Lynx eats.
-     * @return An array of type Class.
-     */
-    protected Class[] retrieveEdible()
-    {
-        return EDIBLE_PREY;
-    }
-
     /**
      * Returns the default color of a Lynx.
      * @return default color.
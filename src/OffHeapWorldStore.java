@@ -0,0 +1,430 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A world store kept outside the Java heap, so that worlds of billions of
+ * cells can be simulated without a heap to match and without the garbage
+ * collector ever having to look at them.
+ *
+ * Every cell is a record of RECORD_SIZE bytes, holding all of its values
+ * next to each other. A ByteBuffer cannot hold more than 2GB, so the records
+ * are split into stripes of CELLS_PER_STRIPE cells, each in its own buffer.
+ *
+ * The stripes are either direct buffers, whose size is limited by the JVM
+ * option -XX:MaxDirectMemorySize, or mappings of a file. A file-backed world
+ * is only limited by the disk, is paged in and out by the operating system,
+ * and keeps its state when the program ends: opening the same file again
+ * gives back the same world, engine values included (see isKept). The file
+ * starts with a header of HEADER_SIZE bytes: a magic number, the format
+ * version, the size of the world and the engine values. The records follow.
+ *
+ * @author Flavio Melinte Citea and Vakaris Paulavičius
+ * @version 1.0
+ */
+public class OffHeapWorldStore extends WorldStore
+{
+    // The first bytes of every world file: "FSWS".
+    private static final int MAGIC = 0x46535753;
+    // The version of the file format written.
+    private static final int VERSION = 2;
+    // The number of bytes of the header, and the offset of the engine values within it.
+    private static final int HEADER_SIZE = 128;
+    private static final int ENGINE_VALUES_OFFSET = 16;
+    // The number of bytes of a cell.
+    private static final int RECORD_SIZE = 16;
+    // The number of cells per stripe, as a power of two, and the number of cells per stripe.
+    private static final int STRIPE_SHIFT = 26;
+    private static final long CELLS_PER_STRIPE = 1L << STRIPE_SHIFT;
+    // The offsets of the values within a record.
+    private static final int SPECIES = 0;
+    private static final int FLAGS = 1;
+    private static final int PLANT = 2;
+    private static final int AGE = 4;
+    private static final int MAX_AGE = 6;
+    private static final int FOOD_LEVEL = 8;
+    private static final int PLANT_AGE = 10;
+    private static final int DISEASES = 12;
+
+    // The buffers holding the cells, CELLS_PER_STRIPE cells each (the last one may hold fewer).
+    private final ByteBuffer[] stripes;
+    // The buffer holding the header.
+    private final ByteBuffer header;
+    // Whether the store was opened on an existing world file.
+    private final boolean kept;
+
+    /**
+     * Create an empty store for a world of the given dimensions, in direct memory.
+     * @param depth The depth of the world.
+     * @param width The width of the world.
+     */
+    public OffHeapWorldStore(int depth, int width)
+    {
+        super(depth, width);
+        header = ByteBuffer.allocateDirect(HEADER_SIZE).order(ByteOrder.nativeOrder());
+        kept = false;
+        stripes = new ByteBuffer[stripeCount()];
+        for(int stripe = 0; stripe < stripes.length; stripe++) {
+            stripes[stripe] = ByteBuffer.allocateDirect(stripeBytes(stripe)).order(ByteOrder.nativeOrder());
+        }
+    }
+
+    /**
+     * Create a store for a world of the given dimensions, mapped from a file.
+     * A new or empty file is created empty; an existing one keeps the world it
+     * holds, and the store is then kept.
+     * @param depth The depth of the world.
+     * @param width The width of the world.
+     * @param file The file holding the world.
+     * @throws IOException If the file cannot be opened or mapped, or holds a
+     *                     world of other dimensions or something else.
+     */
+    public OffHeapWorldStore(int depth, int width, Path file) throws IOException
+    {
+        super(depth, width);
+        stripes = new ByteBuffer[stripeCount()];
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            kept = channel.size() > 0;
+            // The mappings stay valid after the channel is closed.
+            header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE).order(ByteOrder.nativeOrder());
+            if(kept) {
+                checkHeader(file);
+            }
+            else {
+                header.putInt(0, MAGIC);
+                header.putInt(4, VERSION);
+                header.putInt(8, depth);
+                header.putInt(12, width);
+            }
+            for(int stripe = 0; stripe < stripes.length; stripe++) {
+                long offset = HEADER_SIZE + stripe * CELLS_PER_STRIPE * RECORD_SIZE;
+                stripes[stripe] = channel.map(FileChannel.MapMode.READ_WRITE, offset, stripeBytes(stripe))
+                        .order(ByteOrder.nativeOrder());
+            }
+        }
+    }
+
+    /**
+     * Write the changes made to a file-backed world out to the file.
+     * Nothing happens for a world in direct memory.
+     */
+    public void force()
+    {
+        if(header instanceof MappedByteBuffer) {
+            ((MappedByteBuffer) header).force();
+        }
+        for(ByteBuffer stripe : stripes) {
+            if(stripe instanceof MappedByteBuffer) {
+                ((MappedByteBuffer) stripe).force();
+            }
+        }
+    }
+
+    /**
+     * Tell whether the store was opened on an existing world file.
+     * @return true if the file held a world when it was opened.
+     */
+    public boolean isKept()
+    {
+        return kept;
+    }
+
+    /**
+     * Return one of the engine values, from the header.
+     * @param index The index of the value, below ENGINE_VALUES.
+     * @return The value.
+     */
+    public long getEngineValue(int index)
+    {
+        return header.getLong(engineValueOffset(index));
+    }
+
+    /**
+     * Set one of the engine values, in the header.
+     * @param index The index of the value, below ENGINE_VALUES.
+     * @param value The new value.
+     */
+    public void setEngineValue(int index, long value)
+    {
+        header.putLong(engineValueOffset(index), value);
+    }
+
+    /**
+     * Empty the whole world, a stripe at a time.
+     */
+    public void clear()
+    {
+        byte[] zeros = new byte[RECORD_SIZE * 4096];
+        for(ByteBuffer stripe : stripes) {
+            for(int position = 0; position < stripe.capacity(); position += zeros.length) {
+                stripe.put(position, zeros, 0, Math.min(zeros.length, stripe.capacity() - position));
+            }
+        }
+    }
+
+    /**
+     * Make every animal a step older and hungrier, and flag the ones that
+     * are now too old or starving, walking the records of each stripe in
+     * order without branches. Every record is updated the same way; in a
+     * record without an animal, the step added is 0 and the DYING flag
+     * stays clear.
+     */
+    public void ageAnimals()
+    {
+        for(ByteBuffer stripe : stripes) {
+            for(int offset = 0; offset < stripe.capacity(); offset += RECORD_SIZE) {
+                // 1 if the record holds an animal, 0 if not.
+                int occupied = ((stripe.get(offset + SPECIES) & 0xFF) + 0xFF) >>> 8;
+                int age = stripe.getShort(offset + AGE) + occupied;
+                int foodLevel = stripe.getShort(offset + FOOD_LEVEL) - occupied;
+                // Negative exactly when the animal is too old or starving.
+                int dying = ((stripe.getShort(offset + MAX_AGE) - age) | (foodLevel - 1)) & -occupied;
+                stripe.putShort(offset + AGE, (short) age);
+                stripe.putShort(offset + FOOD_LEVEL, (short) foodLevel);
+                stripe.put(offset + FLAGS, (byte) ((stripe.get(offset + FLAGS) & ~DYING) | ((dying >> 31) & DYING)));
+            }
+        }
+    }
+
+    /**
+     * Return the species code of the animal in a cell.
+     * @param cell The cell index.
+     * @return The species code, or NONE if there is no animal.
+     */
+    public int getSpecies(long cell)
+    {
+        return stripeOf(cell).get(offsetOf(cell) + SPECIES);
+    }
+
+    /**
+     * Set the species code of the animal in a cell.
+     * @param cell The cell index.
+     * @param code The species code, or NONE to empty the cell.
+     */
+    public void setSpecies(long cell, int code)
+    {
+        stripeOf(cell).put(offsetOf(cell) + SPECIES, (byte) code);
+    }
+
+    /**
+     * Return the age of the animal in a cell.
+     * @param cell The cell index.
+     * @return The age.
+     */
+    public int getAge(long cell)
+    {
+        return stripeOf(cell).getShort(offsetOf(cell) + AGE);
+    }
+
+    /**
+     * Set the age of the animal in a cell.
+     * @param cell The cell index.
+     * @param newAge The new age.
+     */
+    public void setAge(long cell, int newAge)
+    {
+        stripeOf(cell).putShort(offsetOf(cell) + AGE, (short) newAge);
+    }
+
+    /**
+     * Return the maximum age of the animal in a cell.
+     * @param cell The cell index.
+     * @return The maximum age.
+     */
+    public int getMaxAge(long cell)
+    {
+        return stripeOf(cell).getShort(offsetOf(cell) + MAX_AGE);
+    }
+
+    /**
+     * Set the maximum age of the animal in a cell.
+     * @param cell The cell index.
+     * @param newMaxAge The new maximum age.
+     */
+    public void setMaxAge(long cell, int newMaxAge)
+    {
+        stripeOf(cell).putShort(offsetOf(cell) + MAX_AGE, (short) newMaxAge);
+    }
+
+    /**
+     * Return the food level of the animal in a cell.
+     * @param cell The cell index.
+     * @return The food level.
+     */
+    public int getFoodLevel(long cell)
+    {
+        return stripeOf(cell).getShort(offsetOf(cell) + FOOD_LEVEL);
+    }
+
+    /**
+     * Set the food level of the animal in a cell.
+     * @param cell The cell index.
+     * @param newFoodLevel The new food level.
+     */
+    public void setFoodLevel(long cell, int newFoodLevel)
+    {
+        stripeOf(cell).putShort(offsetOf(cell) + FOOD_LEVEL, (short) newFoodLevel);
+    }
+
+    /**
+     * Return the flags of a cell.
+     * @param cell The cell index.
+     * @return The flags.
+     */
+    public int getFlags(long cell)
+    {
+        return stripeOf(cell).get(offsetOf(cell) + FLAGS);
+    }
+
+    /**
+     * Set the flags of a cell.
+     * @param cell The cell index.
+     * @param newFlags The new flags.
+     */
+    public void setFlags(long cell, int newFlags)
+    {
+        stripeOf(cell).put(offsetOf(cell) + FLAGS, (byte) newFlags);
+    }
+
+    /**
+     * Return the disease mask of the animal in a cell.
+     * @param cell The cell index.
+     * @return The disease mask.
+     */
+    public int getDiseases(long cell)
+    {
+        return stripeOf(cell).getInt(offsetOf(cell) + DISEASES);
+    }
+
+    /**
+     * Set the disease mask of the animal in a cell.
+     * @param cell The cell index.
+     * @param mask The new disease mask.
+     */
+    public void setDiseases(long cell, int mask)
+    {
+        stripeOf(cell).putInt(offsetOf(cell) + DISEASES, mask);
+    }
+
+    /**
+     * Return the species code of the plant in a cell.
+     * @param cell The cell index.
+     * @return The species code, or NONE if nothing grows there.
+     */
+    public int getPlant(long cell)
+    {
+        return stripeOf(cell).get(offsetOf(cell) + PLANT);
+    }
+
+    /**
+     * Set the species code of the plant in a cell.
+     * @param cell The cell index.
+     * @param code The species code, or NONE to empty the cell.
+     */
+    public void setPlant(long cell, int code)
+    {
+        stripeOf(cell).put(offsetOf(cell) + PLANT, (byte) code);
+    }
+
+    /**
+     * Return the age of the plant in a cell.
+     * @param cell The cell index.
+     * @return The age.
+     */
+    public int getPlantAge(long cell)
+    {
+        return stripeOf(cell).getShort(offsetOf(cell) + PLANT_AGE);
+    }
+
+    /**
+     * Set the age of the plant in a cell.
+     * @param cell The cell index.
+     * @param newAge The new age.
+     */
+    public void setPlantAge(long cell, int newAge)
+    {
+        stripeOf(cell).putShort(offsetOf(cell) + PLANT_AGE, (short) newAge);
+    }
+
+    // PRIVATE METHODS
+
+    /**
+     * Check that the header of an existing file is that of a world of this size.
+     * @param file The file, to name in the exception.
+     * @throws IOException If it is not.
+     */
+    private void checkHeader(Path file) throws IOException
+    {
+        if(header.getInt(0) != MAGIC) {
+            throw new IOException(file + " is not a world file");
+        }
+        int version = header.getInt(4);
+        if(version != VERSION) {
+            throw new IOException("Unsupported world file version " + version);
+        }
+        int depth = header.getInt(8);
+        int width = header.getInt(12);
+        if(depth != getDepth() || width != getWidth()) {
+            throw new IOException(file + " holds a " + depth + "x" + width + " world, not a "
+                    + getDepth() + "x" + getWidth() + " one");
+        }
+    }
+
+    /**
+     * Return the offset of an engine value within the header.
+     * @param index The index of the value.
+     * @return The offset in bytes.
+     */
+    private int engineValueOffset(int index)
+    {
+        if(index < 0 || index >= ENGINE_VALUES) {
+            throw new IndexOutOfBoundsException("Engine value " + index + " out of bounds for " + ENGINE_VALUES);
+        }
+        return ENGINE_VALUES_OFFSET + index * Long.BYTES;
+    }
+
+    /**
+     * Return the number of stripes needed for the world.
+     * @return The number of stripes.
+     */
+    private int stripeCount()
+    {
+        return (int) ((getCellCount() + CELLS_PER_STRIPE - 1) >>> STRIPE_SHIFT);
+    }
+
+    /**
+     * Return the size of a stripe in bytes.
+     * @param stripe The index of the stripe.
+     * @return The size of the stripe.
+     */
+    private int stripeBytes(int stripe)
+    {
+        long cells = Math.min(CELLS_PER_STRIPE, getCellCount() - stripe * CELLS_PER_STRIPE);
+        return (int) (cells * RECORD_SIZE);
+    }
+
+    /**
+     * Return the stripe holding a cell.
+     * @param cell The cell index.
+     * @return The buffer of the stripe.
+     */
+    private ByteBuffer stripeOf(long cell)
+    {
+        return stripes[(int) (cell >>> STRIPE_SHIFT)];
+    }
+
+    /**
+     * Return the offset of a cell's record within its stripe.
+     * @param cell The cell index.
+     * @return The offset in bytes.
+     */
+    private int offsetOf(long cell)
+    {
+        return (int) (cell & (CELLS_PER_STRIPE - 1)) * RECORD_SIZE;
+    }
+}
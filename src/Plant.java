@@ -17,6 +17,8 @@ public class Plant extends LivingBeing
     private static final double BREEDING_PROBABILITY = 0.12;
     // How much food value it has for the herbivores
     private static final int FOOD_VALUE = 8;
+    // The traits shared by all plants.
+    public static final SpeciesTraits TRAITS = new SpeciesTraits(Plant.class, MAX_AGE, BREEDING_PROBABILITY, FOOD_VALUE);
 
     /**
      * Create a new plant at a location in the field.
@@ -80,14 +82,15 @@ public class Plant extends LivingBeing
     private void spread(List<LivingBeing> newPlants)
     {
         Field field = getField();
-        List<Location> freeAdjacent = field.getFreeAdjacentLocations(getLocation());
+        int[] freeAdjacent = getAdjacentCells();
+        int count = field.freeAdjacentCells(getLocation(), freeAdjacent);
         Random rand = getRand();
         // Puts newbgrowns in the free adjacent locations.
         // If there are no free adjacent locations, no new plants will grow.
-        for(Location loc : freeAdjacent) {
-            if(rand.nextDouble() <= getDefaultBreedingProbability())
+        for(int i = 0; i < count; i++) {
+            if(rand.nextDouble() <= getBreedingProbability())
             {
-                newPlants.add(new Plant(false, field, loc));
+                newPlants.add(new Plant(false, field, field.getLocation(freeAdjacent[i])));
             }
         }
     }
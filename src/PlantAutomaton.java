@@ -0,0 +1,329 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A plant layer held as a cellular automaton rather than as Plant objects.
+ *
+ * Which cells hold a plant is a bitset, 64 cells to a word, every row
+ * starting on a word of its own; the age of the plant in every cell is a
+ * byte. A plant costs a little over a byte, instead of an object, and a
+ * step does not allocate anything.
+ *
+ * Every step, the plants age and those past their maximum age die. Then
+ * the plants spread the way Plant objects do: each plant sows every free
+ * neighbouring cell with the breeding probability p, and a cell sown once
+ * is no longer free. A free cell next to k plants thus grows a plant with
+ * the probability 1 - (1 - p)^k. The number of plants around every cell
+ * is counted for 64 cells at once, with bitwise adders over the shifted
+ * rows, and random numbers are only drawn for the free cells next to at
+ * least one plant.
+ *
+ * Herbivores find and eat the plants through hasPlant and eat, with cells
+ * numbered the way a Field numbers them.
+ *
+ * @author Flavio Melinte Citea and Vakaris Paulavičius
+ * @version 1.0
+ */
+public class PlantAutomaton
+{
+    // Lets herbivores on different threads clear bits of the same word.
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    // The dimensions of the layer, and the number of words of a row.
+    private final int depth, width, rowWords;
+    // The traits of the plants, and the species id herbivores know them by.
+    private final SpeciesTraits traits;
+    private final int speciesId;
+    // Bit col of word row * rowWords + col / 64 is set if a plant grows in the cell.
+    private final long[] plants;
+    // The plants sown during the current step, laid out like plants.
+    private final long[] sown;
+    // The age of the plant in every cell, by cell index.
+    private final byte[] ages;
+    // The probability that a free cell next to k plants grows a plant, by k.
+    private final double[] growthProbabilities;
+    // The counts of neighbouring plants of the word being sown, bit b of counts[j] being bit j of cell b's count.
+    private final long[] counts;
+
+    /**
+     * Create an empty plant layer.
+     * @param depth The depth of the layer.
+     * @param width The width of the layer.
+     * @param traits The traits of the plants. Their maximum age must fit in a byte.
+     */
+    public PlantAutomaton(int depth, int width, SpeciesTraits traits)
+    {
+        if(traits.getMaxAge() > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("The maximum age of a plant cannot be more than " + Byte.MAX_VALUE);
+        }
+        this.depth = depth;
+        this.width = width;
+        this.traits = traits;
+        speciesId = SpeciesRegistry.getId(traits.getSpeciesClass());
+        rowWords = (width + 63) >>> 6;
+        plants = new long[depth * rowWords];
+        sown = new long[depth * rowWords];
+        ages = new byte[depth * width];
+        growthProbabilities = new double[Field.MAX_ADJACENT + 1];
+        counts = new long[4];
+    }
+
+    /**
+     * Remove every plant.
+     */
+    public void clear()
+    {
+        Arrays.fill(plants, 0);
+    }
+
+    /**
+     * Grow a plant of a random age in every cell with a certain probability.
+     * @param seed The seed of the run.
+     * @param stream The random stream of the layer. Every row gets its own stream.
+     * @param probability The probability that a cell holds a plant.
+     */
+    public void populate(long seed, long stream, double probability)
+    {
+        clear();
+        for(int row = 0; row < depth; row++) {
+            Random rand = Randomizer.select(seed, stream, row);
+            for(int col = 0; col < width; col++) {
+                if(rand.nextDouble() <= probability) {
+                    plants[row * rowWords + (col >>> 6)] |= 1L << col;
+                    ages[row * width + col] = (byte) rand.nextInt(traits.getMaxAge());
+                }
+            }
+        }
+    }
+
+    /**
+     * Make the plants act for a step: age, die of old age and spread.
+     * @param key The key of the random numbers of the step (see Randomizer.key).
+     *            Every row draws from a stream of its own, derived from it.
+     * @param breedingProbability The probability that a plant sows a free neighbouring cell.
+     */
+    public void step(long key, double breedingProbability)
+    {
+        age();
+        for(int k = 0; k <= Field.MAX_ADJACENT; k++) {
+            growthProbabilities[k] = 1 - Math.pow(1 - breedingProbability, k);
+        }
+        for(int row = 0; row < depth; row++) {
+            sowRow(row, Randomizer.select(key, row, 0));
+        }
+        // The new plants only join once every row has been sown, so they do not spread yet.
+        for(int word = 0; word < plants.length; word++) {
+            plants[word] |= sown[word];
+        }
+    }
+
+    /**
+     * Tell whether a plant grows in a cell.
+     * @param cell The cell index, as a Field numbers it.
+     * @return true if a plant grows there.
+     */
+    public boolean hasPlant(int cell)
+    {
+        int row = cell / width;
+        int col = cell - row * width;
+        return (plants[row * rowWords + (col >>> 6)] & (1L << col)) != 0;
+    }
+
+    /**
+     * Eat the plant in a cell. Herbivores on different threads may eat
+     * plants whose bits share a word.
+     * @param cell The cell index, as a Field numbers it.
+     * @return The food value of the plant, or 0 if no plant grew there.
+     */
+    public int eat(int cell)
+    {
+        int row = cell / width;
+        int col = cell - row * width;
+        long bit = 1L << col;
+        long word = (long) WORDS.getAndBitwiseAnd(plants, row * rowWords + (col >>> 6), ~bit);
+        return (word & bit) != 0 ? traits.getFoodValue() : 0;
+    }
+
+    /**
+     * Return the age of the plant in a cell.
+     * @param cell The cell index, as a Field numbers it.
+     * @return The age, or -1 if no plant grows there.
+     */
+    public int getAge(int cell)
+    {
+        return hasPlant(cell) ? ages[cell] : -1;
+    }
+
+    /**
+     * Return the number of plants around a cell, as a step counts them.
+     * Not to be called while the plants act.
+     * @param cell The cell index, as a Field numbers it.
+     * @return The number of neighbouring cells where a plant grows.
+     */
+    public int countNeighbours(int cell)
+    {
+        int row = cell / width;
+        int col = cell - row * width;
+        countNeighbours(row, col >>> 6);
+        int bit = col & 63;
+        int k = 0;
+        for(int j = 0; j < counts.length; j++) {
+            k |= (int) ((counts[j] >>> bit) & 1) << j;
+        }
+        return k;
+    }
+
+    /**
+     * Return the number of plants.
+     * @return The number of plants.
+     */
+    public int getCount()
+    {
+        int count = 0;
+        for(long word : plants) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Return the species id of the plants, see SpeciesRegistry.
+     * @return The species id.
+     */
+    public int getSpeciesId()
+    {
+        return speciesId;
+    }
+
+    /**
+     * Return the traits of the plants.
+     * @return The traits.
+     */
+    public SpeciesTraits getTraits()
+    {
+        return traits;
+    }
+
+    // PRIVATE METHODS
+
+    /**
+     * Make every plant a step older, and let those past their maximum age die.
+     */
+    private void age()
+    {
+        int maxAge = traits.getMaxAge();
+        for(int row = 0; row < depth; row++) {
+            for(int w = 0; w < rowWords; w++) {
+                int index = row * rowWords + w;
+                long word = plants[index];
+                long dead = 0;
+                for(long left = word; left != 0; left &= left - 1) {
+                    int bit = Long.numberOfTrailingZeros(left);
+                    int cell = row * width + (w << 6) + bit;
+                    // Compared before the increment, so that a maximum age of Byte.MAX_VALUE cannot wrap.
+                    if(ages[cell] >= maxAge) {
+                        dead |= 1L << bit;
+                    }
+                    else {
+                        ages[cell]++;
+                    }
+                }
+                plants[index] = word & ~dead;
+            }
+        }
+    }
+
+    /**
+     * Sow the free cells of a row, into sown.
+     * @param row The row.
+     * @param rand The random numbers of the row.
+     */
+    private void sowRow(int row, Random rand)
+    {
+        int start = row * rowWords;
+        for(int w = 0; w < rowWords; w++) {
+            int index = start + w;
+            long centre = plants[index];
+            countNeighbours(row, w);
+            long c0 = counts[0], c1 = counts[1], c2 = counts[2], c3 = counts[3];
+            long candidates = ~centre & (c0 | c1 | c2 | c3) & validBits(w);
+            long born = 0;
+            for(; candidates != 0; candidates &= candidates - 1) {
+                int bit = Long.numberOfTrailingZeros(candidates);
+                int k = (int) ((c0 >>> bit) & 1 | ((c1 >>> bit) & 1) << 1
+                        | ((c2 >>> bit) & 1) << 2 | ((c3 >>> bit) & 1) << 3);
+                if(rand.nextDouble() < growthProbabilities[k]) {
+                    born |= 1L << bit;
+                    ages[row * width + (w << 6) + bit] = 0;
+                }
+            }
+            sown[index] = born;
+        }
+    }
+
+    /**
+     * Count the plants around the 64 cells of a word, into counts.
+     * @param row The row of the cells.
+     * @param w The word of the cells within the row.
+     */
+    private void countNeighbours(int row, int w)
+    {
+        // The counts of neighbouring plants, as the bits of a 4-bit number per cell.
+        long c0 = 0, c1 = 0, c2 = 0, c3 = 0;
+        long carry0, carry1, carry2;
+        for(int neighbour = 0; neighbour < Field.MAX_ADJACENT; neighbour++) {
+            long x = neighbours(row, w, neighbour);
+            carry0 = c0 & x;
+            c0 ^= x;
+            carry1 = c1 & carry0;
+            c1 ^= carry0;
+            carry2 = c2 & carry1;
+            c2 ^= carry1;
+            c3 |= carry2;
+        }
+        counts[0] = c0;
+        counts[1] = c1;
+        counts[2] = c2;
+        counts[3] = c3;
+    }
+
+    /**
+     * Return, for the 64 cells of a word, whether one of their neighbours holds a plant.
+     * @param row The row of the cells.
+     * @param w The word of the cells within the row.
+     * @param neighbour Which neighbour, 0 to 7, in the order of Field.
+     * @return Bit i is set if the neighbour of cell i of the word holds a plant.
+     */
+    private long neighbours(int row, int w, int neighbour)
+    {
+        int neighbourRow = row + (neighbour < 3 ? -1 : neighbour < 5 ? 0 : 1);
+        if(neighbourRow < 0 || neighbourRow >= depth) {
+            return 0;
+        }
+        int start = neighbourRow * rowWords;
+        long word = plants[start + w];
+        switch(neighbour) {
+            case 0: case 3: case 5:
+                // The neighbour to the left: bit i comes from bit i - 1.
+                return (word << 1) | (w > 0 ? plants[start + w - 1] >>> 63 : 0);
+            case 2: case 4: case 7:
+                // The neighbour to the right: bit i comes from bit i + 1.
+                return (word >>> 1) | (w + 1 < rowWords ? plants[start + w + 1] << 63 : 0);
+            default:
+                return word;
+        }
+    }
+
+    /**
+     * Return the bits of a word of a row that stand for cells of the layer.
+     * @param w The word within the row.
+     * @return The mask of the cells.
+     */
+    private long validBits(int w)
+    {
+        int cells = width - (w << 6);
+        return cells >= 64 ? -1L : (1L << cells) - 1;
+    }
+}
@@ -0,0 +1,56 @@
+/**
+ * A non-graphical observer of the simulation. It keeps population
+ * statistics of the observed field, so that the simulation can be
+ * checked for viability without a SimulatorView.
+ *
+ * @author Flavio Melinte Citea and Vakaris Paulavičius
+ * @version 1.0
+ */
+public class PopulationMonitor implements SimulatorObserver, ViabilityCheck
+{
+    // A statistics object computing and storing simulation information
+    private FieldStats stats;
+
+    /**
+     * Create a new population monitor.
+     */
+    public PopulationMonitor()
+    {
+        stats = new FieldStats();
+        // Nothing has been counted yet.
+        stats.reset();
+    }
+
+    /**
+     * Record that the field has changed. The population is only
+     * counted again when it is next asked for.
+     * @param step Which iteration step it is.
+     * @param time A description of the current time of the day.
+     * @param weather A description of the current weather.
+     * @param field The field that has changed.
+     */
+    public void showStatus(int step, String time, String weather, Field field)
+    {
+        stats.reset();
+    }
+
+    /**
+     * Get details of what is in the field.
+     * @param field The field to describe.
+     * @return A string describing what is in the field.
+     */
+    public String getPopulationDetails(Field field)
+    {
+        return stats.getPopulationDetails(field);
+    }
+
+    /**
+     * Determine whether the simulation should continue to run.
+     * @param field The field to check.
+     * @return true If there is more than one species alive.
+     */
+    public boolean isViable(Field field)
+    {
+        return stats.isViable(field);
+    }
+}
@@ -26,20 +26,18 @@ public class RainyWeather extends Weather
     }
 
     /**
-     * Used to act on a particular living being in the simulation.
-     *
-     * RainyWeather reduces the breeding of animals by a half and doubles
-     * the plants breeding probability.
-     *
-     * @param livingBeing A living being (animal/plant) rainy weather acts on.
+     * Return by how much rainy weather multiplies the breeding probability of a species.
+     * @param speciesClass The class of the species.
+     * @return 0.5 for animals, 2 for plants and 1 for anything else.
      */
-    public void act(LivingBeing livingBeing)
+    public double getBreedingModifier(Class speciesClass)
     {
-        if(livingBeing instanceof Animal) {
-            livingBeing.setBreedingProbability(livingBeing.getBreedingProbability() / 2);
+        if(Animal.class.isAssignableFrom(speciesClass)) {
+            return 0.5;
         }
-        else if(livingBeing instanceof Plant) {
-            livingBeing.setBreedingProbability(livingBeing.getBreedingProbability() * 2);
+        else if(Plant.class.isAssignableFrom(speciesClass)) {
+            return 2.0;
         }
+        return 1.0;
     }
 }
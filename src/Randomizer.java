@@ -5,8 +5,13 @@ import java.util.Random;
  * randomizer, repeated runs will perform exactly the same (which helps with testing). Set 
  * 'useShared' to false to get different random behaviour every time.
  *
- * @author David J. Barnes and Michael Kölling
- * @version 1.0
+ * Simulations that may run on several threads use streams instead. Every thread has
+ * its own StreamRandom, which the simulation moves to the stream of a key made from
+ * the seed of the run, the step and the living being about to act. A run then does
+ * exactly the same whatever the number of threads, as long as the same keys are used.
+ *
+ * @author David J. Barnes, Michael Kölling, Flavio Melinte Citea and Vakaris Paulavičius
+ * @version 2.0
  */
 public class Randomizer
 {
@@ -16,6 +21,8 @@ public class Randomizer
     private static final Random rand = new Random(SEED);
     // Determine whether a shared random generator is to be provided.
     private static final boolean useShared = true;
+    // The stream of random numbers of each thread.
+    private static final ThreadLocal<StreamRandom> streams = ThreadLocal.withInitial(() -> new StreamRandom(SEED));
 
     /**
      * Constructor for objects of class Randomizer
@@ -49,4 +56,71 @@ public class Randomizer
             rand.setSeed(SEED);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Return the default seed of a run.
+     * @return The default seed.
+     */
+    public static long getDefaultSeed()
+    {
+        return SEED;
+    }
+
+    /**
+     * Return the random stream of the current thread.
+     * @return The stream, at whichever position it was last moved to.
+     */
+    public static StreamRandom current()
+    {
+        return streams.get();
+    }
+
+    /**
+     * Move the stream of the current thread to the stream of a key and return it.
+     * @param seed The seed of the run.
+     * @param stream What the numbers are for, e.g. the step.
+     * @param id Who the numbers are for, e.g. the id of a living being.
+     * @return The stream of the current thread.
+     */
+    public static StreamRandom select(long seed, long stream, long id)
+    {
+        StreamRandom random = streams.get();
+        random.reseed(key(seed, stream, id));
+        return random;
+    }
+
+    /**
+     * Make the key of an independent stream of random numbers.
+     * @param seed The seed of the run.
+     * @param stream What the numbers are for, e.g. the step.
+     * @param id Who the numbers are for, e.g. the id of a living being.
+     * @return The key of the stream.
+     */
+    public static long key(long seed, long stream, long id)
+    {
+        long key = StreamRandom.mix(seed);
+        key = StreamRandom.mix(key ^ stream);
+        return StreamRandom.mix(key ^ id);
+    }
+
+    /**
+     * Return the number of trials that fail before the next one that succeeds,
+     * when every trial succeeds with the given probability. Drawing it once
+     * stands for drawing one number per trial, which is much cheaper when
+     * successes are rare.
+     * @param rand The random numbers to use.
+     * @param probability The probability that a trial succeeds.
+     * @return The number of failed trials, Long.MAX_VALUE if no trial can succeed.
+     */
+    public static long geometricSkip(Random rand, double probability)
+    {
+        if(probability >= 1) {
+            return 0;
+        }
+        if(probability <= 0) {
+            return Long.MAX_VALUE;
+        }
+        // 1 - nextDouble() is never 0, so the logarithm is finite.
+        return (long) (Math.log(1 - rand.nextDouble()) / Math.log1p(-probability));
+    }
+}
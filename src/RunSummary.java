@@ -0,0 +1,103 @@
+/**
+ * The outcome of one run of an ensemble: its seed, how long the
+ * simulation stayed viable and how the population of every species
+ * changed, sampled every few steps.
+ *
+ * @author Flavio Melinte Citea and Vakaris Paulavičius
+ * @version 1.0
+ */
+public class RunSummary
+{
+    // The number of the run within its ensemble.
+    private final int run;
+    // The seed of the run.
+    private final long seed;
+    // The step at which the simulation stopped being viable, or -1 if it never did.
+    private final int extinctionStep;
+    // The number of steps between two samples.
+    private final int sampleInterval;
+    // The population of each species at each sample, indexed [species][sample].
+    private final int[][] populations;
+
+    /**
+     * Create the summary of a run.
+     * @param run The number of the run within its ensemble.
+     * @param seed The seed of the run.
+     * @param extinctionStep The step at which the simulation stopped being viable, or -1.
+     * @param sampleInterval The number of steps between two samples.
+     * @param populations The population of each species at each sample, from step 0.
+     */
+    public RunSummary(int run, long seed, int extinctionStep, int sampleInterval, int[][] populations)
+    {
+        this.run = run;
+        this.seed = seed;
+        this.extinctionStep = extinctionStep;
+        this.sampleInterval = sampleInterval;
+        this.populations = populations;
+    }
+
+    /**
+     * Return the number of the run within its ensemble.
+     * @return The run number.
+     */
+    public int getRun()
+    {
+        return run;
+    }
+
+    /**
+     * Return the seed of the run.
+     * @return The seed.
+     */
+    public long getSeed()
+    {
+        return seed;
+    }
+
+    /**
+     * Return whether the simulation stopped being viable before the end of the run.
+     * @return true if species died out.
+     */
+    public boolean isExtinct()
+    {
+        return extinctionStep >= 0;
+    }
+
+    /**
+     * Return the step at which the simulation stopped being viable.
+     * @return The step, or -1 if it stayed viable.
+     */
+    public int getExtinctionStep()
+    {
+        return extinctionStep;
+    }
+
+    /**
+     * Return the number of steps between two samples.
+     * @return The sample interval.
+     */
+    public int getSampleInterval()
+    {
+        return sampleInterval;
+    }
+
+    /**
+     * Return the number of samples taken during the run.
+     * @return The number of samples.
+     */
+    public int getSampleCount()
+    {
+        return populations.length == 0 ? 0 : populations[0].length;
+    }
+
+    /**
+     * Return the population of a species at a sample.
+     * @param species The index of the species in the ensemble.
+     * @param sample The index of the sample; sample i was taken at step i * interval.
+     * @return The population.
+     */
+    public int getPopulation(int species, int sample)
+    {
+        return populations[species][sample];
+    }
+}
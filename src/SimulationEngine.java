@@ -0,0 +1,39 @@
+/**
+ * The interface shared by every engine that can advance the forest simulation.
+ * An engine owns its world and knows how to move it forward one step at a time;
+ * how (or whether) the world is displayed is left to the engine's observers.
+ *
+ * @author Flavio Melinte Citea and Vakaris Paulavičius
+ * @version 1.0
+ */
+public interface SimulationEngine
+{
+    /**
+     * Run the simulation from its current state for the given number of steps.
+     * Stop before the given number of steps if it ceases to be viable.
+     * @param numSteps The number of steps to run for.
+     */
+    void simulate(int numSteps);
+
+    /**
+     * Run the simulation from its current state for a single step.
+     */
+    void simulateOneStep();
+
+    /**
+     * Reset the simulation to a starting position.
+     */
+    void reset();
+
+    /**
+     * Return the number of steps simulated since the last reset.
+     * @return The current step.
+     */
+    int getStep();
+
+    /**
+     * Determine whether the simulation should continue to run.
+     * @return true if the simulation is still viable.
+     */
+    boolean isViable();
+}
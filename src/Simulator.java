@@ -1,12 +1,18 @@
+import java.awt.Color;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Random;
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Iterator;
-import java.awt.Color;
 import java.util.Map;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
 
 /**
  * A predator-prey simulator, based on a rectangular field
@@ -20,20 +26,36 @@ import java.util.Set;
  * @author David J. Barnes, Michael Kölling, Flavio Melinte Citea and Vakaris Paulavičius
  * @version 5.0
  */
-public class Simulator
+public class Simulator implements SimulationEngine
 {
     // Constants representing configuration information for the simulation.
     // The default width for the grid.
     private static final int DEFAULT_WIDTH = 120;
     // The default depth of the grid.
     private static final int DEFAULT_DEPTH = 80;
-    // A randomizer object for the simulation
-    private static final Random rand = Randomizer.getRandom();
+    // The time between the starts of two steps when the simulation is shown in a view, in milliseconds.
+    private static final int VIEW_STEP_DELAY = 100;
+    // The most steps a simulation running late catches up on without pausing.
+    private static final int MAX_CATCH_UP_STEPS = 10;
+    // The random streams used for populating the fields and changing the weather.
+    // Living beings use streams keyed by step instead, which are never negative.
+    private static final long ANIMAL_POPULATION_STREAM = -1;
+    private static final long PLANT_POPULATION_STREAM = -2;
+    private static final long WEATHER_STREAM = -3;
+    private static final long RANDOM_INFECTION_STREAM = -5;
+    private static final long PLANT_AUTOMATON_STREAM = -6;
+    private static final long DISEASE_SPREAD_STREAM = -7;
+    // The number of rows of a field populated by one task.
+    private static final int POPULATION_BAND_ROWS = 16;
+    // The number of living beings one task lets rest.
+    private static final int RESTING_BAND_BEINGS = 4096;
 
     // List of animals in the field.
-    private List<LivingBeing> livingBeings;
+    private ActorList<LivingBeing> livingBeings;
     // A list of diseases animals can get infected with.
     private List<Disease> diseases;
+    // The animals that caught a disease in the spreading pass under way.
+    private List<Animal> caughtDiseases;
     // A list of the types of weather that can occur.
     private List<Weather> typesOfWeather;
     // A chance that at any step the wether will change.
@@ -48,8 +70,30 @@ public class Simulator
     private TimeTracker timeTracker;
     // The current step of the simulation.
     private int step;
-    // A graphical view of the simulation.
-    private SimulatorView view;
+    // The seed all random numbers of this simulation are derived from.
+    private long seed;
+    // Observers told about the state of the simulation after every step.
+    private List<SimulatorObserver> observers;
+    // Decides whether the simulation should keep running, if set.
+    private ViabilityCheck viabilityCheck;
+    // The time between the starts of two steps, in milliseconds.
+    private int stepDelay;
+    // The threads the fields are populated on, and tiles act on.
+    private ForkJoinPool pool;
+    // Lets living beings act tile by tile, on several threads or on the calling thread.
+    private TiledStepper tiledStepper;
+    // Shows the observers a step while the next one is computed, or null to show them every step in turn.
+    private ExecutorService postProcessor;
+    // Two copies of the animal field: the observers are shown one while the other is filled.
+    private Field[] shownFields;
+    // The index of the copy filled next.
+    private int nextShown;
+    // The appearances the copies hold instead of objects other than animals, by default color and color.
+    private Map<Color, Map<Color, Appearance>> appearances;
+    // The showing of the last step computed, or null if it is over.
+    private Future<?> postProcessing;
+    // The automaton plants grow in, or null if they are living beings of the plant field.
+    private PlantAutomaton plantAutomaton;
     // Maps classes of animal species to their initial creation probability.
     private Map<Class, Double> animalSpecies;
     // Maps classes of plant species to their initial creation probability.
@@ -57,7 +101,9 @@ public class Simulator
 
     public static void main(String[] args)
     {
-        Simulator simulator = new Simulator();
+        // Run without a window if asked to, e.g. on machines without a display.
+        boolean headless = args.length > 0 && args[0].equals("--headless");
+        Simulator simulator = new Simulator(DEFAULT_DEPTH, DEFAULT_WIDTH, headless);
         simulator.runLongSimulation();
     }
 
@@ -76,6 +122,34 @@ public class Simulator
      */
     public Simulator(int depth, int width)
     {
+        this(depth, width, false);
+    }
+
+    /**
+     * Create a simulation field with the given size.
+     * A headless simulation has no graphical view: it does not pause between
+     * steps and only checks that the population is still viable.
+     * @param depth Depth of the field. Must be greater than zero.
+     * @param width Width of the field. Must be greater than zero.
+     * @param headless true if the simulation should run without a view.
+     */
+    public Simulator(int depth, int width, boolean headless)
+    {
+        this(depth, width, headless, Randomizer.getDefaultSeed());
+    }
+
+    /**
+     * Create a simulation field with the given size.
+     * Two simulations with the same size and seed behave exactly the same,
+     * whatever the number of threads they run on.
+     * @param depth Depth of the field. Must be greater than zero.
+     * @param width Width of the field. Must be greater than zero.
+     * @param headless true if the simulation should run without a view.
+     * @param seed The seed all random numbers of the simulation are derived from.
+     */
+    public Simulator(int depth, int width, boolean headless, long seed)
+    {
+        this.seed = seed;
         if(width <= 0 || depth <= 0) {
             System.out.println("The dimensions must be greater than zero.");
             System.out.println("Using default values.");
@@ -91,14 +165,29 @@ public class Simulator
         weather = new SunnyWeather();
         timeTracker = new TimeTracker(0, 24, 21, 5);
         // Initialize fields and animal list
-        livingBeings = new ArrayList<>();
+        livingBeings = new ActorList<>();
+        caughtDiseases = new ArrayList<>();
+        pool = ForkJoinPool.commonPool();
         animalField = new Field(depth, width, timeTracker);
-        plantField = new Field(depth, width, timeTracker);
-
-        // Create a view of the state of each location in the field.
-        view = new SimulatorView(depth, width);
+        tiledStepper = new TiledStepper(animalField, TiledStepper.DEFAULT_TILE_SIZE, null);
+        // The plant field is another layer of the same world.
+        plantField = new Field(animalField);
+        animalField.getClimate().setWeather(weather);
+
+        observers = new ArrayList<>();
+        if(headless) {
+            PopulationMonitor monitor = new PopulationMonitor();
+            addObserver(monitor);
+            setViabilityCheck(monitor);
+            stepDelay = 0;
+        }
+        else {
+            createView(depth, width);
+            stepDelay = VIEW_STEP_DELAY;
+        }
 
         setHuntingFields();
+        animalField.setDiseases(diseases);
 
         // Setup a valid starting point.
         reset();
@@ -116,20 +205,39 @@ public class Simulator
     /**
      * Run the simulation from its current state for the given number of steps.
      * Stop before the given number of steps if it ceases to be viable.
+     * With a step delay, a step starts every stepDelay milliseconds. Steps
+     * that start late do not push the others back: the following ones start
+     * without pausing until the simulation is on time again, unless it is
+     * more than MAX_CATCH_UP_STEPS steps late, in which case it starts over
+     * from the current time. Observers, such as the view, never hold a step up.
      * @param numSteps The number of steps to run for.
      */
     public void simulate(int numSteps)
     {
-        for(int step = 1; step <= numSteps && view.isViable(animalField); step++) {
+        long period = stepDelay * 1_000_000L;
+        long due = System.nanoTime();
+        for(int step = 1; step <= numSteps && isViable(); step++) {
             simulateOneStep();
-            delay(100);
+            if(period > 0) {
+                due += period;
+                long early = due - System.nanoTime();
+                if(early > 0) {
+                    delay((int) ((early + 999_999) / 1_000_000));
+                }
+                else if(early < -MAX_CATCH_UP_STEPS * period) {
+                    due = System.nanoTime();
+                }
+            }
         }
+        awaitPostProcessing();
     }
 
     /**
      * Run the simulation from its current state for a single step.
      * Iterate over the whole field updating the state of each
      * fox and rabbit.
+     * When pipelined, the observers are shown the step while the next one
+     * is computed: this returns as soon as the step itself is done.
      */
     public void simulateOneStep()
     {
@@ -137,23 +245,39 @@ public class Simulator
         increaseTimeOfDay();
 
         changeWeather();
-
-        // Provide space for newborn animals.
-        List<LivingBeing> newLivingBeings = new ArrayList<>();
-        // Let all rabbits act.
-        for(Iterator<LivingBeing> it = livingBeings.iterator(); it.hasNext(); ) {
-            LivingBeing livingBeing = it.next();
-            randomlyInfect(livingBeing);
-            livingBeing.act(newLivingBeings);
-            if(! livingBeing.isAlive()) {
-                it.remove();
-            }
+        randomlyInfect();
+
+        // The animals that are not active at this time of day only rest, all at once.
+        boolean night = timeTracker.isNight();
+        restInactive(night);
+
+        // Newborn animals are collected in the list's own buffer.
+        List<LivingBeing> newLivingBeings = livingBeings.getNewborns();
+        // Let the others act tile by tile, in the same order on any number of threads.
+        // Beings that die stay in the list until the end of the step.
+        tiledStepper.forEach(livingBeings, livingBeing -> isActive(livingBeing, night), this::actOne,
+                newLivingBeings);
+        // The diseases spread once every living being has acted.
+        spreadDiseases();
+
+        if(plantAutomaton != null) {
+            // The plants act all at once, after the animals.
+            Climate climate = animalField.getClimate();
+            double breedingProbability = Math.min(1.0, plantAutomaton.getTraits().getBreedingProbability()
+                    * climate.getBreedingModifier(plantAutomaton.getSpeciesId()));
+            plantAutomaton.step(Randomizer.key(seed, PLANT_AUTOMATON_STREAM, step), breedingProbability);
         }
 
-        // Add the new living beings to the list.
-        livingBeings.addAll(newLivingBeings);
+        // Drop the dead living beings and add the new ones to the list.
+        livingBeings.removeDead();
+        livingBeings.addNewborns();
 
-        view.showStatus(step, timeTracker.toString(), weather.toString(), animalField);
+        if(postProcessor != null) {
+            showLater();
+        }
+        else {
+            notifyObservers();
+        }
     }
 
     /**
@@ -161,12 +285,154 @@ public class Simulator
      */
     public void reset()
     {
+        awaitPostProcessing();
         step = 0;
         livingBeings.clear();
         populate();
 
         // Show the starting state in the view.
-        view.showStatus(step, timeTracker.toString(), weather.toString(), animalField);
+        notifyObservers();
+    }
+
+    /**
+     * Return the number of steps simulated since the last reset.
+     * @return The current step.
+     */
+    public int getStep()
+    {
+        return step;
+    }
+
+    /**
+     * Determine whether the simulation should continue to run.
+     * A simulation without a viability check is always viable.
+     * The answer is that of the last step, pipelined or not.
+     * @return true if the simulation is still viable.
+     */
+    public boolean isViable()
+    {
+        return checkViability(animalField);
+    }
+
+    /**
+     * Add an observer that will be shown the state of the simulation after every step.
+     * @param observer The observer to add.
+     */
+    public void addObserver(SimulatorObserver observer)
+    {
+        if(observer != null) {
+            observers.add(observer);
+        }
+    }
+
+    /**
+     * Set the check that decides whether the simulation should keep running.
+     * @param viabilityCheck The new check, or null to run for as many steps as asked.
+     */
+    public void setViabilityCheck(ViabilityCheck viabilityCheck)
+    {
+        this.viabilityCheck = viabilityCheck;
+    }
+
+    /**
+     * Let the living beings act on several threads. The field is split into
+     * tiles that act in parallel when they are far enough from each other.
+     * On a single thread the tiles act one after another, in the same order,
+     * so the number of threads never changes the course of a simulation.
+     * The fields are populated on the same threads, or on the common pool.
+     * The threads of a pool made for an earlier number are shut down.
+     * @param threads The number of threads to use, or 1 to act on the calling thread.
+     */
+    public void setThreads(int threads)
+    {
+        ForkJoinPool oldPool = pool;
+        boolean ownPool = oldPool != ForkJoinPool.commonPool();
+        if(threads > 1) {
+            if(ownPool && oldPool.getParallelism() == threads) {
+                // The threads there are will do.
+                return;
+            }
+            pool = new ForkJoinPool(threads);
+            tiledStepper = new TiledStepper(animalField, TiledStepper.DEFAULT_TILE_SIZE, pool);
+        }
+        else {
+            pool = ForkJoinPool.commonPool();
+            tiledStepper = new TiledStepper(animalField, TiledStepper.DEFAULT_TILE_SIZE, null);
+        }
+        if(ownPool) {
+            oldPool.shutdown();
+        }
+    }
+
+    /**
+     * Show the observers every step, and check its viability, on a thread
+     * of their own while the next step is computed, so that a step takes
+     * about as long as the living beings take to act. The observers are
+     * shown a copy of the animal field made at the end of the step, in which
+     * every animal is replaced by its appearance (see Appearance): they never
+     * see the living beings, which go on acting meanwhile. There are two
+     * copies, so that one is filled while the observers look at the other. Viability is still
+     * checked on the simulation's thread, on the step just computed.
+     * The simulation itself takes exactly the same course either way.
+     * @param pipelined true to show the steps while the next ones are computed.
+     */
+    public void setPipelined(boolean pipelined)
+    {
+        awaitPostProcessing();
+        if(pipelined && postProcessor == null) {
+            postProcessor = Executors.newSingleThreadExecutor(task -> {
+                Thread thread = new Thread(task, "simulation-observers");
+                thread.setDaemon(true);
+                return thread;
+            });
+            shownFields = new Field[] {new Field(animalField), new Field(animalField)};
+            nextShown = 0;
+            appearances = new HashMap<>();
+        }
+        else if(!pipelined && postProcessor != null) {
+            postProcessor.shutdown();
+            postProcessor = null;
+            shownFields = null;
+            appearances = null;
+        }
+    }
+
+    /**
+     * Let the plants grow in a PlantAutomaton rather than be Plant objects,
+     * which is much cheaper in time and memory for large worlds. Herbivores
+     * eat from the automaton. A seeded simulation takes another, equally
+     * reproducible, course; checkpoints are not supported meanwhile.
+     * The simulation is reset.
+     * @param enabled true for plants in an automaton, false for Plant objects.
+     */
+    public void setPlantAutomaton(boolean enabled)
+    {
+        if(enabled) {
+            plantAutomaton = new PlantAutomaton(plantField.getDepth(), plantField.getWidth(), Plant.TRAITS);
+        }
+        else {
+            plantAutomaton = null;
+        }
+        plantField.setPlantAutomaton(plantAutomaton);
+        reset();
+    }
+
+    /**
+     * Return the automaton the plants grow in.
+     * @return The automaton, or null if plants are living beings of the plant field.
+     */
+    public PlantAutomaton getPlantAutomaton()
+    {
+        return plantAutomaton;
+    }
+
+    /**
+     * Set the time between the starts of two steps.
+     * @param millisec The time in milliseconds, or 0 to run as fast as possible.
+     */
+    public void setStepDelay(int millisec)
+    {
+        stepDelay = Math.max(0, millisec);
     }
 
     /**
@@ -187,15 +453,72 @@ public class Simulator
         return animalField;
     }
 
+    /**
+     * Write the state of the simulation to a file, so that it can be
+     * restored and continued later. See WorldSnapshot for the format.
+     * @param file The file to write.
+     * @throws IOException If the file cannot be written.
+     * @throws IllegalStateException If the plants grow in an automaton.
+     */
+    public void checkpoint(Path file) throws IOException
+    {
+        if(plantAutomaton != null) {
+            throw new IllegalStateException("Plants that grow in an automaton cannot be checkpointed");
+        }
+        new WorldSnapshot(diseases).write(file, seed, step, timeTracker.getTimeOfDay(), getWeatherIndex(),
+                livingBeings, animalField);
+    }
+
+    /**
+     * Replace the state of the simulation with one written by checkpoint.
+     * The simulation then continues exactly as the one that was written would have.
+     * @param file The file to read.
+     * @throws IOException If the file cannot be read or was written by a simulation of another size.
+     * @throws IllegalStateException If the plants grow in an automaton.
+     */
+    public void restore(Path file) throws IOException
+    {
+        if(plantAutomaton != null) {
+            throw new IllegalStateException("Plants that grow in an automaton cannot be restored");
+        }
+        awaitPostProcessing();
+        WorldSnapshot snapshot = new WorldSnapshot(diseases);
+        List<LivingBeing> restored = snapshot.read(file, animalField, plantField);
+        livingBeings.clear();
+        livingBeings.addAll(restored);
+        seed = snapshot.getSeed();
+        step = snapshot.getStep();
+        timeTracker.setTimeOfDay(snapshot.getTimeOfDay());
+        if(snapshot.getWeather() >= 0 && snapshot.getWeather() < typesOfWeather.size()) {
+            setWeather(typesOfWeather.get(snapshot.getWeather()));
+        }
+
+        notifyObservers();
+    }
+
     // PRIVATE METHODS
 
+    /**
+     * Return the index of the current weather among the types of weather.
+     * @return The index, or -1 if the weather is not one of them.
+     */
+    private int getWeatherIndex()
+    {
+        for(int index = 0; index < typesOfWeather.size(); index++) {
+            if(typesOfWeather.get(index).getClass() == weather.getClass()) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
     /**
      * Determines the species simulated, as well as their initial creation probability.
      */
     private void setSpecies()
     {
-        animalSpecies = new HashMap<>();
-        plantSpecies = new HashMap<>();
+        animalSpecies = new LinkedHashMap<>();
+        plantSpecies = new LinkedHashMap<>();
 
         // Animals
         animalSpecies.put(Lynx.class, 0.02);
@@ -208,53 +531,212 @@ public class Simulator
 
     /**
      * Randomly populate the fields with animals and plants, respectively.
+     * The fields are filled in bands of POPULATION_BAND_ROWS rows, in parallel.
+     * Every row has its own random stream and the bands join the list of
+     * living beings in order, so the result is the same on any number of threads.
+     * Plants that grow in an automaton are sown there instead.
      */
     private void populate()
     {
-        populateField(animalField, animalSpecies);
-        populateField(plantField, plantSpecies);
+        animalField.clear();
+        plantField.clear();
+
+        List<ForkJoinTask<List<LivingBeing>>> bands = new ArrayList<>();
+        addPopulationBands(bands, animalField, animalSpecies, ANIMAL_POPULATION_STREAM);
+        if(plantAutomaton != null) {
+            plantAutomaton.populate(seed, PLANT_POPULATION_STREAM, plantSpecies.get(Plant.class));
+        }
+        else {
+            addPopulationBands(bands, plantField, plantSpecies, PLANT_POPULATION_STREAM);
+        }
+        pool.submit(() -> ForkJoinTask.invokeAll(bands)).join();
+
+        for(ForkJoinTask<List<LivingBeing>> band : bands) {
+            livingBeings.addAll(band.join());
+        }
     }
 
     /**
-     * Populates a field with living beings of certain species.
+     * Add the tasks populating a field, one per band of rows, to a list.
+     * @param bands The list to add the tasks to.
      * @param field The field to be populated.
      * @param species A map between classes of species and their creation probabilities.
+     * @param stream The random stream of the field. Every row gets its own stream.
      */
-    private void populateField(Field field, Map<Class, Double> species)
+    private void addPopulationBands(List<ForkJoinTask<List<LivingBeing>>> bands, Field field,
+                                    Map<Class, Double> species, long stream)
     {
-        field.clear();
+        // Look the factories and probabilities up once, rather than for every location.
+        LivingBeingFactory[] factories = new LivingBeingFactory[species.size()];
+        double[] probabilities = new double[species.size()];
+        int index = 0;
+        for(Map.Entry<Class, Double> entry : species.entrySet()) {
+            factories[index] = SpeciesRegistry.getFactory(entry.getKey());
+            probabilities[index] = entry.getValue();
+            index++;
+        }
 
-        Set<Class> speciesSet = species.keySet();
+        for(int firstRow = 0; firstRow < field.getDepth(); firstRow += POPULATION_BAND_ROWS) {
+            int first = firstRow;
+            int last = Math.min(field.getDepth(), firstRow + POPULATION_BAND_ROWS);
+            bands.add(ForkJoinTask.adapt(() -> populateRows(field, factories, probabilities, stream, first, last)));
+        }
+    }
 
+    /**
+     * Populates some rows of a field with living beings of certain species.
+     * @param field The field to be populated.
+     * @param factories The factories of the species.
+     * @param probabilities The creation probability of each species.
+     * @param stream The random stream of the field. Every row gets its own stream.
+     * @param firstRow The first row to populate.
+     * @param lastRow The row after the last one to populate.
+     * @return The new living beings, row by row.
+     */
+    private List<LivingBeing> populateRows(Field field, LivingBeingFactory[] factories, double[] probabilities,
+                                           long stream, int firstRow, int lastRow)
+    {
+        List<LivingBeing> newBeings = new ArrayList<>();
         // Take every location.
-        for(int row = 0; row < field.getDepth(); row++) {
+        for(int row = firstRow; row < lastRow; row++) {
+            Random rand = Randomizer.select(seed, stream, row);
             for(int col = 0; col < field.getWidth(); col++) {
                 // Take every species.
-                for(Class speciesClass : speciesSet) {
+                for(int species = 0; species < factories.length; species++) {
                     // Decide if a being is placed in the location, based on its species' creation probability.
-                    if(rand.nextDouble() <= species.get(speciesClass)) {
-                        // Only living beings are allowed.
-                        if(LivingBeing.class.isAssignableFrom(speciesClass)) {
-                            Location location = new Location(row, col);
-                            // Try to create a new living being.
-                            try {
-                                LivingBeing newBeing = (LivingBeing) speciesClass
-                                        .getConstructor(boolean.class, Field.class, Location.class)
-                                        .newInstance(true, field, location);
-                                livingBeings.add(newBeing);
-                                break;
-                            }
-                            catch (Exception e) {
-                                // In case of an exception, don't populate.
-                                System.out.println("Field " + field.toString() + " not populated because exception " +
-                                        e.toString() + " was caught ");
-                                return;
-                            }
-                        }
+                    if(rand.nextDouble() <= probabilities[species]) {
+                        newBeings.add(factories[species].create(true, field, field.getLocation(row, col)));
+                        break;
                     }
                 }
             }
         }
+        return newBeings;
+    }
+
+    /**
+     * Create a graphical view of the state of each location in the field.
+     * The view is kept out of the constructor so that headless simulations
+     * never need the GUI classes.
+     * @param depth Depth of the field.
+     * @param width Width of the field.
+     */
+    private void createView(int depth, int width)
+    {
+        SimulatorView view = new SimulatorView(depth, width);
+        addObserver(view);
+        setViabilityCheck(view);
+    }
+
+    /**
+     * Show the current state of the simulation to all observers.
+     */
+    private void notifyObservers()
+    {
+        notifyObservers(step, timeTracker.toString(), weather.toString(), animalField);
+    }
+
+    /**
+     * Show a state of the simulation to all observers.
+     * @param shownStep The step.
+     * @param time A description of the time of the day.
+     * @param weatherName A description of the weather.
+     * @param field The animal field.
+     */
+    private void notifyObservers(int shownStep, String time, String weatherName, Field field)
+    {
+        for(SimulatorObserver observer : observers) {
+            observer.showStatus(shownStep, time, weatherName, field);
+        }
+    }
+
+    /**
+     * Check whether a state of the simulation is viable.
+     * @param field The animal field.
+     * @return true if it is, or if there is no viability check.
+     */
+    private boolean checkViability(Field field)
+    {
+        return viabilityCheck == null || viabilityCheck.isViable(field);
+    }
+
+    /**
+     * Copy the current state of the simulation, the animals replaced by
+     * their appearances, and show it to the observers on their own thread,
+     * once they are done with the last one. The copy is filled while they
+     * may still be looking at the other one.
+     */
+    private void showLater()
+    {
+        Field shownField = shownFields[nextShown];
+        shownField.copyFrom(animalField, this::appearanceOf);
+        awaitPostProcessing();
+        nextShown ^= 1;
+        int shownStep = step;
+        String time = timeTracker.toString();
+        String weatherName = weather.toString();
+        postProcessing = postProcessor.submit(() -> notifyObservers(shownStep, time, weatherName, shownField));
+    }
+
+    /**
+     * Return the appearance of an object of the animal field, as it is now.
+     * An animal keeps its own; for anything else, there is one appearance
+     * for each pair of colors.
+     * @param object The object, usually an animal.
+     * @return The appearance.
+     */
+    private Object appearanceOf(Object object)
+    {
+        if(object instanceof Animal) {
+            return ((Animal) object).getAppearance();
+        }
+        Color color = null;
+        Color defaultColor = null;
+        if(object instanceof Drawable) {
+            color = ((Drawable) object).getColor();
+            defaultColor = ((Drawable) object).getDefaultColor();
+        }
+        Map<Color, Appearance> byColor = appearances.get(defaultColor);
+        if(byColor == null) {
+            byColor = new HashMap<>();
+            appearances.put(defaultColor, byColor);
+        }
+        Appearance appearance = byColor.get(color);
+        if(appearance == null) {
+            appearance = new Appearance(color, defaultColor);
+            byColor.put(color, appearance);
+        }
+        return appearance;
+    }
+
+    /**
+     * Wait for the observers to be done with the last step shown to them.
+     * Nothing happens if they are.
+     */
+    private void awaitPostProcessing()
+    {
+        if(postProcessing == null) {
+            return;
+        }
+        boolean interrupted = false;
+        while(true) {
+            try {
+                postProcessing.get();
+                break;
+            }
+            catch(InterruptedException e) {
+                // The observers must be done before the field is copied again.
+                interrupted = true;
+            }
+            catch(ExecutionException e) {
+                postProcessing = null;
+                throw new IllegalStateException("Showing a step to the observers failed", e.getCause());
+            }
+        }
+        postProcessing = null;
+        if(interrupted) {
+            Thread.currentThread().interrupt();
+        }
     }
 
     /**
@@ -280,37 +762,145 @@ public class Simulator
     }
 
     /**
-     * Try to infect a living being at every step with all of the available diseases.
-     * @param livingBeing A living being which to infect.
+     * Let the animals that are not active at a time of day rest for this
+     * step, before the others act. Resting only ages an animal, lets its
+     * diseases act on it and makes it hungrier: it does not look at its
+     * neighbours or draw random numbers. So the animals rest in one pass
+     * over the list rather than tile by tile, in bands of the list on
+     * several threads if the tiles act on several threads, with the same
+     * result.
+     * @param night true if it is night.
+     */
+    private void restInactive(boolean night)
+    {
+        if(!tiledStepper.isParallel()) {
+            restBand(night, 0, livingBeings.size());
+            return;
+        }
+        List<ForkJoinTask<?>> bands = new ArrayList<>();
+        for(int first = 0; first < livingBeings.size(); first += RESTING_BAND_BEINGS) {
+            int from = first;
+            int to = Math.min(livingBeings.size(), first + RESTING_BAND_BEINGS);
+            bands.add(ForkJoinTask.adapt(() -> restBand(night, from, to)));
+        }
+        pool.submit(() -> ForkJoinTask.invokeAll(bands)).join();
+    }
+
+    /**
+     * Let the animals of a band of the list that are not active at a time of day rest.
+     * @param night true if it is night.
+     * @param from The index of the first living being of the band.
+     * @param to The index after the last living being of the band.
      */
-    private void randomlyInfect(LivingBeing livingBeing)
+    private void restBand(boolean night, int from, int to)
     {
-        // Check if it is an animal, because in this version of the simulation, only animals can have diseases.
-        if(livingBeing instanceof Animal)
+        for(int index = from; index < to; index++) {
+            LivingBeing livingBeing = livingBeings.get(index);
+            if(livingBeing.isAlive() && !isActive(livingBeing, night)) {
+                ((Animal) livingBeing).rest();
+            }
+        }
+    }
+
+    /**
+     * Tell whether a living being is active at a time of day. Only animals
+     * rest; other living beings are always active.
+     * @param livingBeing The living being.
+     * @param night true if it is night.
+     * @return true if it acts, false if it only rests.
+     */
+    private static boolean isActive(LivingBeing livingBeing, boolean night)
+    {
+        return !(livingBeing instanceof Animal) || ((Animal) livingBeing).isActive(night);
+    }
+
+    /**
+     * Make a single living being act for this step.
+     * @param livingBeing The living being to act.
+     * @param newLivingBeings A list to receive newborn animals and new plants.
+     */
+    private void actOne(LivingBeing livingBeing, List<LivingBeing> newLivingBeings)
+    {
+        prepareOne(livingBeing);
+        livingBeing.act(newLivingBeings);
+    }
+
+    /**
+     * Prepare a single living being to act for this step.
+     * @param livingBeing The living being about to act.
+     */
+    private void prepareOne(LivingBeing livingBeing)
+    {
+        // Every living being has its own random stream in every step.
+        Randomizer.select(seed, step, livingBeing.getId());
+    }
+
+    /**
+     * Try to infect the living beings at every step with all of the available diseases,
+     * each one that can catch a disease with the disease's random infection probability.
+     * The probability is very low, so rather than drawing a number for every living
+     * being, the number of beings to skip before the next one that is hit is drawn.
+     * Only those that are hit are looked at; if they are animals that can catch the
+     * disease, they get it.
+     */
+    private void randomlyInfect()
+    {
+        Random rand = Randomizer.select(seed, RANDOM_INFECTION_STREAM, step);
+        int count = livingBeings.size();
+        for(int index = 0; index < diseases.size(); index++)
         {
-            // Cast it to Animal class
-            Animal animal = (Animal) livingBeing;
-            for(Disease disease : diseases)
+            Disease disease = diseases.get(index);
+            double probability = disease.getRandomInfectionProbability();
+            long hit = -1;
+            while(true)
             {
-                // Try to infect it with every disease (the probability is very low)
-                Random rand = animal.getRand();
-                if(disease.canInfect(livingBeing) && rand.nextDouble() <= disease.getRandomInfectionProbability())
+                long skip = Randomizer.geometricSkip(rand, probability);
+                if(skip >= count - hit - 1) {
+                    break;
+                }
+                hit += skip + 1;
+
+                // In this version of the simulation, only animals can have diseases.
+                LivingBeing livingBeing = livingBeings.get((int) hit);
+                if(livingBeing instanceof Animal && livingBeing.isAlive()
+                        && disease.canInfectSpecies(livingBeing.getSpeciesId()))
                 {
-                    animal.infectWith(disease);
+                    ((Animal) livingBeing).infectWith(index);
                 }
             }
         }
     }
 
+    /**
+     * Let the diseases spread to the neighbours of the infected animals, in one
+     * pass once the living beings have acted. The infected animals try to infect
+     * their neighbours in the order of the list, from one random stream of the step.
+     * What the neighbours catch is only added to their diseases at the end, so a
+     * disease moves one cell per step at most.
+     */
+    private void spreadDiseases()
+    {
+        Random rand = Randomizer.select(seed, DISEASE_SPREAD_STREAM, step);
+        for(LivingBeing livingBeing : livingBeings) {
+            if(livingBeing instanceof Animal) {
+                ((Animal) livingBeing).infectNeighbours(rand, caughtDiseases);
+            }
+        }
+        for(Animal animal : caughtDiseases) {
+            animal.catchDiseases();
+        }
+        caughtDiseases.clear();
+    }
+
     /**
      * Used to set the hunting fields for all animal classes.
      */
     private void setHuntingFields()
     {
-        Hamster.setHuntingField(plantField);
-        Lynx.setHuntingField(animalField);
-        Wolf.setHuntingField(animalField);
-        Deer.setHuntingField(plantField);
+        animalField.setHuntingField(Hamster.class, plantField);
+        animalField.setHuntingField(Lynx.class, animalField);
+        animalField.setHuntingField(Wolf.class, animalField);
+        animalField.setHuntingField(Deer.class, plantField);
     }
 
     /**
@@ -346,43 +936,25 @@ public class Simulator
      */
     private void changeWeather()
     {
+        Random rand = Randomizer.select(seed, WEATHER_STREAM, step);
         double newDouble = rand.nextDouble();
         int newInt = rand.nextInt(typesOfWeather.size());
 
         if(newDouble <= chanceOfWeatherChange) {
             setWeather(typesOfWeather.get(newInt));
-            weatherAffectAll();
-        }
-    }
-
-    /**
-     * Used when the weather changes. This method affects the behaviour of a single living being given the new weather.
-     */
-    private void weatherAffectOne(LivingBeing livingBeing)
-    {
-        if(weather != null && livingBeing != null) {
-            weather.act(livingBeing);
-        }
-    }
-
-    /**
-     * Used when the weather changes. This method affects the behaviour of all the living beings that are in the simulation.
-     */
-    private void weatherAffectAll()
-    {
-        for(LivingBeing being : livingBeings) {
-            weatherAffectOne(being);
         }
     }
 
     /**
-     * Used to set a new weather.
+     * Used to set a new weather. It affects the living beings through the
+     * climate of the world, whatever their number.
      * @param newWeather A new weather set change to.
      */
     private void setWeather(Weather newWeather)
     {
         if(newWeather != null) {
             weather = newWeather;
+            animalField.getClimate().setWeather(weather);
         }
     }
 }
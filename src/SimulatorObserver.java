@@ -0,0 +1,18 @@
+/**
+ * Interface for objects that want to be told about the state of
+ * the simulation after every step, such as the graphical view.
+ *
+ * @author Flavio Melinte Citea and Vakaris Paulavičius
+ * @version 1.0
+ */
+public interface SimulatorObserver
+{
+    /**
+     * Show (or record) the current status of the field.
+     * @param step Which iteration step it is.
+     * @param time A description of the current time of the day.
+     * @param weather A description of the current weather.
+     * @param field The field whose status is to be observed.
+     */
+    void showStatus(int step, String time, String weather, Field field);
+}
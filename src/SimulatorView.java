@@ -1,8 +1,15 @@
 import java.awt.*;
 import java.awt.event.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import javax.swing.*;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * A graphical view of the simulation grid.
@@ -10,10 +17,17 @@ import java.util.Map;
  * representing its contents. It uses a default background color.
  * The colour for each drawable instance is defined by the instance itself.
  *
+ * The simulation runs on a thread of its own and never waits for the view.
+ * After a step it hands the view a Frame: a snapshot of what is to be
+ * shown. The view paints the frame on the event dispatch thread, at most
+ * MAX_FRAMES_PER_SECOND times a second. While a frame waits to be painted,
+ * the steps that follow are not made into frames at all: they would only
+ * be dropped.
+ *
  * @author David J. Barnes, Michael Kölling, Flavio Melinte Citea and Vakaris Paulavičius
  * @version 2.0
  */
-public class SimulatorView extends JFrame
+public class SimulatorView extends JFrame implements SimulatorObserver, ViabilityCheck
 {
     // Colors used for empty locations.
     private static final Color EMPTY_COLOR = Color.white;
@@ -21,6 +35,13 @@ public class SimulatorView extends JFrame
     // Color used for objects that have no defined color.
     private static final Color UNKNOWN_COLOR = Color.gray;
 
+    // The most times per second the view is painted.
+    private static final int MAX_FRAMES_PER_SECOND = 30;
+    // The number of cells from which a frame is filled in parallel.
+    private static final int PARALLEL_CELLS = 1 << 16;
+    // The number of rows of a frame filled by one task.
+    private static final int STRIPE_ROWS = 32;
+
     private final String STEP_PREFIX = "Step: ";
     private final String POPULATION_PREFIX = "Population: ";
     private final String WEATHER_PREFIX = "Weather: ";
@@ -30,6 +51,10 @@ public class SimulatorView extends JFrame
 
     // A statistics object computing and storing simulation information
     private FieldStats stats;
+    // The latest frame handed over by the simulation and not yet painted, or null.
+    private final AtomicReference<Frame> pendingFrame;
+    // A painted frame the simulation can fill in again, or null.
+    private final AtomicReference<Frame> freeFrame;
 
     /**
      * Create a view of the given width and height.
@@ -39,6 +64,8 @@ public class SimulatorView extends JFrame
     public SimulatorView(int height, int width)
     {
         stats = new FieldStats();
+        pendingFrame = new AtomicReference<>();
+        freeFrame = new AtomicReference<>();
 
         setTitle("Forest Simulation");
         stepLabel = new JLabel(STEP_PREFIX, JLabel.CENTER);
@@ -62,57 +89,103 @@ public class SimulatorView extends JFrame
         contents.add(population, BorderLayout.SOUTH);
         pack();
         setVisible(true);
+
+        new Timer(1000 / MAX_FRAMES_PER_SECOND, event -> paintFrame()).start();
     }
 
     /**
-     * Show the current status of the field.
+     * Show the current status of the field. Called on the simulation's
+     * thread: the status is only recorded in a frame, painted later.
+     * Nothing is done while the last frame is still waiting to be painted.
      * @param step Which iteration step it is.
+     * @param time A description of the current time of the day.
+     * @param weather A description of the current weather.
      * @param field The field whose status is to be displayed.
      */
     public void showStatus(int step, String time, String weather, Field field)
     {
+        // Only this thread hands frames over, so none can arrive after the check.
+        if(pendingFrame.get() != null) {
+            return;
+        }
+        Frame frame = freeFrame.getAndSet(null);
+        if(frame == null) {
+            frame = new Frame(field.getDepth(), field.getWidth());
+        }
+        stats.reset();
+        frame.fill(step, time, weather, stats.getPopulationDetails(field), field);
+        pendingFrame.set(frame);
+    }
+
+    /**
+     * Determine whether the simulation should continue to run.
+     * @return true If there is more than one species alive.
+     */
+    public boolean isViable(Field field)
+    {
+        return stats.isViable(field);
+    }
+
+    // PRIVATE METHODS
+
+    /**
+     * Paint the latest frame, if there is one that has not been painted yet.
+     * Called on the event dispatch thread.
+     */
+    private void paintFrame()
+    {
+        Frame frame = pendingFrame.getAndSet(null);
+        if(frame == null) {
+            return;
+        }
         if(!isVisible()) {
             setVisible(true);
         }
 
-        stepLabel.setText(STEP_PREFIX + step);
-        stats.reset();
+        stepLabel.setText(STEP_PREFIX + frame.step);
+        population.setText(POPULATION_PREFIX + frame.populationDetails);
+        timeLabel.setText(TIME_PREFIX + frame.time);
+        weatherLabel.setText(WEATHER_PREFIX + frame.weather);
+        fieldView.update(frame.colors);
 
-        fieldView.preparePaint();
-
-        for(int row = 0; row < field.getDepth(); row++) {
-            for(int col = 0; col < field.getWidth(); col++) {
-                Object object = field.getObjectAt(row, col);
-                if(object != null) {
-                    stats.incrementCount(object.getClass());
-                    if(object instanceof Drawable) {
-                        Drawable drawableActor = (Drawable) object;
-                        fieldView.drawMark(col, row, drawableActor.getColor());
-                    }
-                    else {
-                        fieldView.drawMark(col, row, UNKNOWN_COLOR);
-                    }
-                }
-                else {
-                    fieldView.drawMark(col, row, EMPTY_COLOR);
-                }
+        freeFrame.set(frame);
+    }
+
+    /**
+     * Return the color a cell of the view should have.
+     * @param object The object in the cell, or null.
+     * @return The color, as an RGB value.
+     */
+    private static int colorOf(Object object)
+    {
+        if(object == null) {
+            return EMPTY_COLOR.getRGB();
+        }
+        if(object instanceof Drawable) {
+            Color color = ((Drawable) object).getColor();
+            if(color != null) {
+                return opaque(color);
             }
         }
-        stats.countFinished();
-
-        population.setText(POPULATION_PREFIX + stats.getPopulationDetails(field));
-        timeLabel.setText(TIME_PREFIX + time);
-        weatherLabel.setText(WEATHER_PREFIX + weather);
-        fieldView.repaint();
+        return UNKNOWN_COLOR.getRGB();
     }
 
     /**
-     * Determine whether the simulation should continue to run.
-     * @return true If there is more than one species alive.
+     * Return the color a translucent color, e.g. that of a sick animal,
+     * has on the background of an empty cell.
+     * @param color The color.
+     * @return The color seen, as an RGB value.
      */
-    public boolean isViable(Field field)
+    private static int opaque(Color color)
     {
-        return stats.isViable(field);
+        int alpha = color.getAlpha();
+        if(alpha == 255) {
+            return color.getRGB();
+        }
+        int red = (color.getRed() * alpha + EMPTY_COLOR.getRed() * (255 - alpha) + 127) / 255;
+        int green = (color.getGreen() * alpha + EMPTY_COLOR.getGreen() * (255 - alpha) + 127) / 255;
+        int blue = (color.getBlue() * alpha + EMPTY_COLOR.getBlue() * (255 - alpha) + 127) / 255;
+        return new Color(red, green, blue).getRGB();
     }
 
     /**
@@ -122,16 +195,19 @@ public class SimulatorView extends JFrame
      * component displays the field.
      * This is rather advanced GUI stuff - you can ignore this
      * for your project if you like.
+     *
+     * The field is kept as an image with a pixel per cell, whose pixels
+     * are written directly, and scaled up when it is painted. Only the
+     * rows holding cells whose color changed are written and repainted.
      */
     private class FieldView extends JPanel
     {
         private final int GRID_VIEW_SCALING_FACTOR = 6;
 
         private int gridWidth, gridHeight;
-        private int xScale, yScale;
-        Dimension size;
-        private Graphics g;
-        private Image fieldImage;
+        // The image of the field, a pixel per cell, and its pixels, row by row.
+        private BufferedImage fieldImage;
+        private int[] pixels;
 
         /**
          * Create a new FieldView component.
@@ -140,7 +216,9 @@ public class SimulatorView extends JFrame
         {
             gridHeight = height;
             gridWidth = width;
-            size = new Dimension(0, 0);
+            fieldImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            pixels = ((DataBufferInt) fieldImage.getRaster().getDataBuffer()).getData();
+            Arrays.fill(pixels, EMPTY_COLOR.getRGB());
         }
 
         /**
@@ -153,52 +231,141 @@ public class SimulatorView extends JFrame
         }
 
         /**
-         * Prepare for a new round of painting. Since the component
-         * may be resized, compute the scaling factor again.
+         * Bring the image up to date with the colors of a frame, and
+         * repaint the rows that changed.
+         * @param colors The color of every cell, as RGB values, row by row.
+         */
+        public void update(int[] colors)
+        {
+            int first = gridHeight;
+            int last = -1;
+            for(int row = 0; row < gridHeight; row++) {
+                int from = row * gridWidth;
+                int to = from + gridWidth;
+                if(Arrays.mismatch(pixels, from, to, colors, from, to) >= 0) {
+                    System.arraycopy(colors, from, pixels, from, gridWidth);
+                    first = Math.min(first, row);
+                    last = row;
+                }
+            }
+            if(last >= first) {
+                int yScale = getYScale();
+                repaint(0, first * yScale, getWidth(), (last - first + 1) * yScale);
+            }
+        }
+
+        /**
+         * The field view component needs to be redisplayed. Scale the
+         * image of the field up to the size of the component.
          */
-        public void preparePaint()
+        public void paintComponent(Graphics g)
         {
-            if(! size.equals(getSize())) {  // if the size has changed...
-                size = getSize();
-                fieldImage = fieldView.createImage(size.width, size.height);
-                g = fieldImage.getGraphics();
-
-                xScale = size.width / gridWidth;
-                if(xScale < 1) {
-                    xScale = GRID_VIEW_SCALING_FACTOR;
+            super.paintComponent(g);
+            int xScale = getXScale();
+            int yScale = getYScale();
+            g.drawImage(fieldImage, 0, 0, gridWidth * xScale, gridHeight * yScale, null);
+
+            // Leave a gap between the cells, as long as they are large enough to see it.
+            if(xScale > 2 && yScale > 2) {
+                g.setColor(getBackground());
+                for(int col = 1; col <= gridWidth; col++) {
+                    g.drawLine(col * xScale - 1, 0, col * xScale - 1, gridHeight * yScale);
                 }
-                yScale = size.height / gridHeight;
-                if(yScale < 1) {
-                    yScale = GRID_VIEW_SCALING_FACTOR;
+                for(int row = 1; row <= gridHeight; row++) {
+                    g.drawLine(0, row * yScale - 1, gridWidth * xScale, row * yScale - 1);
                 }
             }
         }
 
         /**
-         * Paint on grid location on this field in a given color.
+         * Return the width of a cell on the screen.
+         * @return The width in pixels.
          */
-        public void drawMark(int x, int y, Color color)
+        private int getXScale()
         {
-            g.setColor(color);
-            g.fillRect(x * xScale, y * yScale, xScale-1, yScale-1);
+            return Math.max(1, getWidth() / gridWidth);
         }
 
         /**
-         * The field view component needs to be redisplayed. Copy the
-         * internal image to screen.
+         * Return the height of a cell on the screen.
+         * @return The height in pixels.
          */
-        public void paintComponent(Graphics g)
+        private int getYScale()
         {
-            if(fieldImage != null) {
-                Dimension currentSize = getSize();
-                if(size.equals(currentSize)) {
-                    g.drawImage(fieldImage, 0, 0, null);
+            return Math.max(1, getHeight() / gridHeight);
+        }
+    }
+
+    /**
+     * What the view shows of one step: the labels, and the color of every
+     * cell. A frame is filled in by the simulation's thread and is not
+     * changed while the view holds it; once painted, it is
+     * filled in again for a later step rather than thrown away.
+     */
+    private static class Frame
+    {
+        private final int depth, width;
+        private int step;
+        private String time, weather, populationDetails;
+        // The color of every cell, as RGB values, row by row.
+        private final int[] colors;
+
+        /**
+         * Create an empty frame for a field of the given size.
+         * @param depth The depth of the field.
+         * @param width The width of the field.
+         */
+        public Frame(int depth, int width)
+        {
+            this.depth = depth;
+            this.width = width;
+            colors = new int[depth * width];
+        }
+
+        /**
+         * Record the status of the simulation. Large fields are recorded
+         * in stripes of rows, in parallel.
+         * @param step Which iteration step it is.
+         * @param time A description of the current time of the day.
+         * @param weather A description of the current weather.
+         * @param populationDetails A description of the population.
+         * @param field The field whose status is to be displayed.
+         */
+        public void fill(int step, String time, String weather, String populationDetails, Field field)
+        {
+            this.step = step;
+            this.time = time;
+            this.weather = weather;
+            this.populationDetails = populationDetails;
+
+            int stripes = (depth + STRIPE_ROWS - 1) / STRIPE_ROWS;
+            if((long) depth * width >= PARALLEL_CELLS) {
+                List<ForkJoinTask<?>> tasks = new ArrayList<>();
+                for(int stripe = 0; stripe < stripes; stripe++) {
+                    int index = stripe;
+                    tasks.add(ForkJoinTask.adapt(() -> fillStripe(field, index)));
                 }
-                else {
-                    // Rescale the previous image.
-                    g.drawImage(fieldImage, 0, 0, currentSize.width, currentSize.height, null);
+                ForkJoinTask.invokeAll(tasks);
+            }
+            else {
+                for(int stripe = 0; stripe < stripes; stripe++) {
+                    fillStripe(field, stripe);
                 }
             }
         }
+
+        /**
+         * Record the colors of a stripe of rows.
+         * @param field The field whose status is to be displayed.
+         * @param stripe The index of the stripe.
+         */
+        private void fillStripe(Field field, int stripe)
+        {
+            int first = stripe * STRIPE_ROWS * width;
+            int last = Math.min(depth, (stripe + 1) * STRIPE_ROWS) * width;
+            for(int cell = first; cell < last; cell++) {
+                colors[cell] = colorOf(field.getObjectAt(cell));
+            }
+        }
     }
 }
@@ -0,0 +1,145 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The species living beings can be created of, each with its traits and
+ * factory. The species of the forest are registered from the start; new
+ * species can be registered before a simulation that uses them is created.
+ *
+ * Every species gets a dense id, in the order species are registered, and
+ * the food web of all registered species is kept up to date, so that the
+ * living beings can check what they eat by id.
+ *
+ * @author Flavio Melinte Citea and Vakaris Paulavičius
+ * @version 1.0
+ */
+public class SpeciesRegistry
+{
+    // Maps classes of species to their ids.
+    private static final Map<Class, Integer> ids = new ConcurrentHashMap<>();
+    // The traits and factories of the species, indexed by id. Replaced, never changed, on registration.
+    private static volatile List<SpeciesTraits> traits = Collections.emptyList();
+    private static volatile List<LivingBeingFactory> factories = Collections.emptyList();
+    // Who eats whom among the registered species.
+    private static volatile FoodWeb foodWeb = new FoodWeb(traits);
+
+    static {
+        register(Lynx.TRAITS, Lynx::new);
+        register(Wolf.TRAITS, Wolf::new);
+        register(Deer.TRAITS, Deer::new);
+        register(Hamster.TRAITS, Hamster::new);
+        register(Plant.TRAITS, Plant::new);
+    }
+
+    /**
+     * Constructor for objects of class SpeciesRegistry
+     */
+    public SpeciesRegistry()
+    {
+    }
+
+    /**
+     * Register a species, replacing its traits and factory if it was already
+     * registered. A species keeps its id once registered.
+     * @param speciesTraits The traits of the species, which name its class.
+     * @param factory Creates living beings of the species.
+     */
+    public static synchronized void register(SpeciesTraits speciesTraits, LivingBeingFactory factory)
+    {
+        Class speciesClass = speciesTraits.getSpeciesClass();
+        if(!LivingBeing.class.isAssignableFrom(speciesClass)) {
+            throw new IllegalArgumentException(speciesClass.getName() + " is not a species of living beings");
+        }
+
+        List<SpeciesTraits> newTraits = new ArrayList<>(traits);
+        List<LivingBeingFactory> newFactories = new ArrayList<>(factories);
+        Integer id = ids.get(speciesClass);
+        if(id == null) {
+            newTraits.add(speciesTraits);
+            newFactories.add(factory);
+        }
+        else {
+            newTraits.set(id, speciesTraits);
+            newFactories.set(id, factory);
+        }
+        traits = Collections.unmodifiableList(newTraits);
+        factories = Collections.unmodifiableList(newFactories);
+        foodWeb = new FoodWeb(newTraits);
+        ids.putIfAbsent(speciesClass, newTraits.size() - 1);
+    }
+
+    /**
+     * Return the id of a species.
+     * @param speciesClass The class of the species.
+     * @return The id, between 0 and the number of registered species.
+     * @throws IllegalArgumentException If the species is not registered.
+     */
+    public static int getId(Class speciesClass)
+    {
+        Integer id = ids.get(speciesClass);
+        if(id == null) {
+            throw new IllegalArgumentException("Unknown species " + speciesClass.getName());
+        }
+        return id;
+    }
+
+    /**
+     * Return the factory of a species.
+     * @param speciesClass The class of the species.
+     * @return The factory.
+     * @throws IllegalArgumentException If the species is not registered.
+     */
+    public static LivingBeingFactory getFactory(Class speciesClass)
+    {
+        return factories.get(getId(speciesClass));
+    }
+
+    /**
+     * Return the traits of a species.
+     * @param speciesClass The class of the species.
+     * @return The traits.
+     * @throws IllegalArgumentException If the species is not registered.
+     */
+    public static SpeciesTraits getTraits(Class speciesClass)
+    {
+        return traits.get(getId(speciesClass));
+    }
+
+    /**
+     * Return the registered species of a name.
+     * @param name The name of the class of the species.
+     * @return The class of the species, or null if no species of that name is registered.
+     */
+    public static Class<? extends LivingBeing> forName(String name)
+    {
+        for(SpeciesTraits speciesTraits : traits) {
+            Class<?> speciesClass = speciesTraits.getSpeciesClass();
+            if(speciesClass.getName().equals(name)) {
+                // Only species of living beings are registered.
+                return speciesClass.asSubclass(LivingBeing.class);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Return the traits of the registered species.
+     * @return The traits, indexed by id. The list cannot be changed.
+     */
+    public static List<SpeciesTraits> getSpecies()
+    {
+        return traits;
+    }
+
+    /**
+     * Return who eats whom among the registered species.
+     * @return The food web, indexed by id.
+     */
+    public static FoodWeb getFoodWeb()
+    {
+        return foodWeb;
+    }
+}
@@ -0,0 +1,163 @@
+/**
+ * The characteristics shared by all members of one species,
+ * gathered in a single object. Engines that do not create an
+ * object for every living being (such as the CompactSimulator)
+ * use the traits instead of asking each being for its defaults.
+ *
+ * @author Flavio Melinte Citea and Vakaris Paulavičius
+ * @version 1.0
+ */
+public class SpeciesTraits
+{
+    // The class of the species these traits describe.
+    private final Class speciesClass;
+    // The age at which members of the species can start to breed.
+    private final int breedingAge;
+    // The age to which members of the species can live.
+    private final int maxAge;
+    // The likelihood of breeding (or spreading, for plants).
+    private final double breedingProbability;
+    // The maximum number of births.
+    private final int maxLitterSize;
+    // Maximum number of steps a member can go before it has to eat again.
+    private final int maxFoodLevel;
+    // How much food value a member has for whoever eats it.
+    private final int foodValue;
+    // Whether the species is active at night.
+    private final boolean nocturnal;
+    // The classes whose instances members of this species eat.
+    private final Class[] edible;
+
+    /**
+     * Create the traits of an animal species.
+     * @param speciesClass The class of the species.
+     * @param breedingAge The age at which members can start to breed.
+     * @param maxAge The age to which members can live.
+     * @param breedingProbability The likelihood of breeding.
+     * @param maxLitterSize The maximum number of births.
+     * @param maxFoodLevel Maximum number of steps a member can go without eating.
+     * @param foodValue How much food value a member has for a predator.
+     * @param nocturnal true if the species is active at night.
+     * @param edible The classes whose instances members of this species eat.
+     */
+    public SpeciesTraits(Class speciesClass, int breedingAge, int maxAge, double breedingProbability,
+                         int maxLitterSize, int maxFoodLevel, int foodValue, boolean nocturnal, Class[] edible)
+    {
+        this.speciesClass = speciesClass;
+        this.breedingAge = breedingAge;
+        this.maxAge = maxAge;
+        this.breedingProbability = breedingProbability;
+        this.maxLitterSize = maxLitterSize;
+        this.maxFoodLevel = maxFoodLevel;
+        this.foodValue = foodValue;
+        this.nocturnal = nocturnal;
+        this.edible = edible;
+    }
+
+    /**
+     * Create the traits of a plant species.
+     * Plants do not eat, move or give birth to litters.
+     * @param speciesClass The class of the species.
+     * @param maxAge The age to which members can live.
+     * @param breedingProbability The likelihood of spreading to a free neighbouring location.
+     * @param foodValue How much food value a member has for a herbivore.
+     */
+    public SpeciesTraits(Class speciesClass, int maxAge, double breedingProbability, int foodValue)
+    {
+        this(speciesClass, 0, maxAge, breedingProbability, 0, 0, foodValue, false, new Class[0]);
+    }
+
+    /**
+     * Return the class of the species.
+     * @return The species class.
+     */
+    public Class getSpeciesClass()
+    {
+        return speciesClass;
+    }
+
+    /**
+     * Return the name of the species.
+     * @return The name of the species class.
+     */
+    public String getName()
+    {
+        return speciesClass.getName();
+    }
+
+    /**
+     * Return the age at which members of the species can start to breed.
+     * @return Breeding age.
+     */
+    public int getBreedingAge()
+    {
+        return breedingAge;
+    }
+
+    /**
+     * Return the age to which members of the species can live.
+     * @return Maximum age.
+     */
+    public int getMaxAge()
+    {
+        return maxAge;
+    }
+
+    /**
+     * Return the likelihood of breeding (or spreading, for plants).
+     * @return The default breeding probability.
+     */
+    public double getBreedingProbability()
+    {
+        return breedingProbability;
+    }
+
+    /**
+     * Return the maximum number of births.
+     * @return The maximum litter size.
+     */
+    public int getMaxLitterSize()
+    {
+        return maxLitterSize;
+    }
+
+    /**
+     * Return the maximum number of steps a member can go without eating.
+     * @return The maximum food level.
+     */
+    public int getMaxFoodLevel()
+    {
+        return maxFoodLevel;
+    }
+
+    /**
+     * Return how much food value a member has for whoever eats it.
+     * @return The food value.
+     */
+    public int getFoodValue()
+    {
+        return foodValue;
+    }
+
+    /**
+     * Return whether the species is active at night.
+     * @return true if it is nocturnal.
+     */
+    public boolean isNocturnal()
+    {
+        return nocturnal;
+    }
+
+    /**
+     * Check if members of this species eat instances of a class.
+     * @param objectClass Class of the instances.
+     * @return true if members of this species do eat instances of the specified class.
+     */
+    public boolean eats(Class objectClass)
+    {
+        for(int i = 0; i < edible.length; i++) {
+            if(objectClass.equals(edible[i])) return true;
+        }
+        return false;
+    }
+}
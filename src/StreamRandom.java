@@ -0,0 +1,98 @@
+import java.util.Random;
+
+/**
+ * A random number generator whose whole state is a single counter, so
+ * that it can be moved to any point of any stream in constant time.
+ *
+ * Numbers are produced by the SplitMix64 algorithm: the counter is advanced
+ * by a fixed odd constant and then scrambled. Reseeding with a key derived
+ * from (seed, step, living being) gives every living being its own stream
+ * in every step, whatever thread it happens to act on.
+ *
+ * Like Random, a StreamRandom must not be shared between threads
+ * without synchronization; Randomizer keeps one per thread.
+ *
+ * @author Flavio Melinte Citea and Vakaris Paulavičius
+ * @version 1.0
+ */
+public class StreamRandom extends Random
+{
+    // Random is serializable; this is the version of the serialized form.
+    private static final long serialVersionUID = 1L;
+    // The amount the counter is advanced by for every number (the golden ratio, as an odd 64-bit number).
+    private static final long GAMMA = 0x9E3779B97F4A7C15L;
+
+    // The current position in the stream.
+    private long state;
+
+    /**
+     * Create a stream starting at the given seed.
+     * @param seed The seed of the stream.
+     */
+    public StreamRandom(long seed)
+    {
+        super(seed);
+    }
+
+    /**
+     * Move the stream to the start of the stream for the given seed.
+     * @param seed The new seed.
+     */
+    public void setSeed(long seed)
+    {
+        // Called by the Random constructor as well.
+        state = mix(seed);
+    }
+
+    /**
+     * Move the stream to the start of the stream for the given key,
+     * as made by Randomizer.key.
+     * @param key The key of the stream.
+     */
+    public void reseed(long key)
+    {
+        state = key;
+    }
+
+    /**
+     * Return the current position in the stream, which reseed moves back to.
+     * @return The state of the stream.
+     */
+    public long getState()
+    {
+        return state;
+    }
+
+    /**
+     * Return the next pseudorandom long.
+     * @return The next number of the stream.
+     */
+    public long nextLong()
+    {
+        state += GAMMA;
+        return mix(state);
+    }
+
+    /**
+     * Generate the next pseudorandom number with the given number of random bits.
+     * All the other methods of Random are built on this one.
+     * @param bits The number of random bits (at most 32).
+     * @return The next number of the stream.
+     */
+    protected int next(int bits)
+    {
+        return (int) (nextLong() >>> (64 - bits));
+    }
+
+    /**
+     * Scramble a 64-bit value. Different inputs always give different outputs.
+     * @param z The value to scramble.
+     * @return The scrambled value.
+     */
+    public static long mix(long z)
+    {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
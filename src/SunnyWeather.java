@@ -1,6 +1,6 @@
 /**
  * Represents the "default" weather, where all living beings
- * have their probability to breed reset to its default value.
+ * breed with their own, unmodified probability.
  *
  * @author Flavio Melinte Citea and Vakaris Paulavičius
  * @version 1.0
@@ -23,16 +23,4 @@ public class SunnyWeather extends Weather
     {
         return "Sunny";
     }
-
-    /**
-     * Used to act on a particular living being in the simulation.
-     *
-     * SunnyWeather restores the default breeding probability value for the specified living being.
-     *
-     * @param livingBeing A living being sunny weather acts on.
-     */
-    public void act(LivingBeing livingBeing)
-    {
-        livingBeing.setBreedingProbability(livingBeing.getDefaultBreedingProbability());
-    }
 }
@@ -0,0 +1,173 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Lets living beings act on several threads at once.
+ *
+ * The field is split into square tiles, and every living being is put in the
+ * list of the tile it stands in. A living being only ever reaches the cells
+ * next to it (to move, hunt, give birth or infect), so two tiles can safely act
+ * at the same time as long as a whole tile lies between them. Tiles are coloured
+ * like a checkerboard, but with four colours instead of two because beings can
+ * also reach the tiles diagonal to theirs. The tiles of one colour act in
+ * parallel on a ForkJoinPool, and the four colours act one after another.
+ *
+ * Every living being acts at most once per step, in the tile it started the
+ * step in, even if it moves into a tile that acts later. Beings within a tile
+ * act in the order they are given, and newborns are collected tile by tile,
+ * so the result does not depend on how the tiles were shared between threads.
+ * Without a pool, the tiles act on the calling thread, colour by colour, and
+ * the result is again the same.
+ *
+ * @author Flavio Melinte Citea and Vakaris Paulavičius
+ * @version 1.0
+ */
+public class TiledStepper
+{
+    // The default number of rows and columns in a tile.
+    public static final int DEFAULT_TILE_SIZE = 32;
+    // The smallest tile that keeps two tiles of the same colour out of each other's reach.
+    private static final int MIN_TILE_SIZE = 2;
+    // The number of colours tiles are split into.
+    private static final int COLOURS = 4;
+
+    // The number of rows and columns in a tile.
+    private final int tileSize;
+    // The number of tiles in a column and in a row of the field.
+    private final int tileRows, tileCols;
+    // The threads the tiles act on.
+    private final ForkJoinPool pool;
+    // The living beings standing in each tile at the start of a step.
+    private final List<List<LivingBeing>> tileBeings;
+    // The beings born in each tile during a step.
+    private final List<List<LivingBeing>> tileNewborns;
+
+    /**
+     * Create a stepper for fields of the same size as the given one.
+     * @param field A field of the simulated world.
+     * @param tileSize The number of rows and columns in a tile (at least 2).
+     * @param pool The threads the tiles act on, or null to act on the calling thread.
+     */
+    public TiledStepper(Field field, int tileSize, ForkJoinPool pool)
+    {
+        this.tileSize = Math.max(MIN_TILE_SIZE, tileSize);
+        this.pool = pool;
+        tileRows = (field.getDepth() + this.tileSize - 1) / this.tileSize;
+        tileCols = (field.getWidth() + this.tileSize - 1) / this.tileSize;
+
+        tileBeings = new ArrayList<>();
+        tileNewborns = new ArrayList<>();
+        for(int tile = 0; tile < tileRows * tileCols; tile++) {
+            tileBeings.add(new ArrayList<>());
+            tileNewborns.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Make every living being of the list perform an action, tile by tile.
+     * Beings that are dead by the time their turn comes are skipped.
+     * @param beings The beings to act.
+     * @param action What each being does. It receives the being and a list for new beings.
+     * @param newBeings A list to receive the new beings, in tile order.
+     */
+    public void forEach(List<? extends LivingBeing> beings, BiConsumer<LivingBeing, List<LivingBeing>> action,
+                        List<LivingBeing> newBeings)
+    {
+        forEach(beings, being -> true, action, newBeings);
+    }
+
+    /**
+     * Make the living beings of the list that pass a test perform an action,
+     * tile by tile. The others are not even put in a tile. Beings that are
+     * dead by the time their turn comes are skipped.
+     * @param beings The beings to act.
+     * @param acting Tells whether a being acts. It is asked before any being acts.
+     * @param action What each being does. It receives the being and a list for new beings.
+     * @param newBeings A list to receive the new beings, in tile order.
+     */
+    public void forEach(List<? extends LivingBeing> beings, Predicate<LivingBeing> acting,
+                        BiConsumer<LivingBeing, List<LivingBeing>> action, List<LivingBeing> newBeings)
+    {
+        for(LivingBeing being : beings) {
+            Location location = being.getLocation();
+            if(being.isAlive() && location != null && acting.test(being)) {
+                tileBeings.get(tileOf(location)).add(being);
+            }
+        }
+
+        for(int colour = 0; colour < COLOURS; colour++) {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>();
+            for(int tileRow = colour / 2; tileRow < tileRows; tileRow += 2) {
+                for(int tileCol = colour % 2; tileCol < tileCols; tileCol += 2) {
+                    int tile = tileRow * tileCols + tileCol;
+                    if(!tileBeings.get(tile).isEmpty()) {
+                        tasks.add(ForkJoinTask.adapt(() -> actTile(tile, action)));
+                    }
+                }
+            }
+            if(pool != null) {
+                pool.submit(() -> ForkJoinTask.invokeAll(tasks)).join();
+            }
+            else {
+                for(ForkJoinTask<?> task : tasks) {
+                    task.invoke();
+                }
+            }
+        }
+
+        for(int tile = 0; tile < tileBeings.size(); tile++) {
+            tileBeings.get(tile).clear();
+            newBeings.addAll(tileNewborns.get(tile));
+            tileNewborns.get(tile).clear();
+        }
+    }
+
+    /**
+     * Return the number of rows and columns in a tile.
+     * @return The tile size.
+     */
+    public int getTileSize()
+    {
+        return tileSize;
+    }
+
+    /**
+     * Tell whether the tiles act on several threads.
+     * @return true if they act on a pool, false if on the calling thread.
+     */
+    public boolean isParallel()
+    {
+        return pool != null;
+    }
+
+    // PRIVATE METHODS
+
+    /**
+     * Make the living beings of one tile act, one after the other.
+     * @param tile The tile index.
+     * @param action What each being does.
+     */
+    private void actTile(int tile, BiConsumer<LivingBeing, List<LivingBeing>> action)
+    {
+        List<LivingBeing> newborns = tileNewborns.get(tile);
+        for(LivingBeing being : tileBeings.get(tile)) {
+            if(being.isAlive()) {
+                action.accept(being, newborns);
+            }
+        }
+    }
+
+    /**
+     * Return the tile a location lies in.
+     * @param location The location.
+     * @return The tile index.
+     */
+    private int tileOf(Location location)
+    {
+        return (location.getRow() / tileSize) * tileCols + location.getCol() / tileSize;
+    }
+}
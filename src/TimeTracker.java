@@ -43,6 +43,15 @@ public class TimeTracker
         return timeOfDay;
     }
 
+    /**
+     * Set the current time of the day, e.g. when a snapshot is restored.
+     * @param newTimeOfDay The new time, kept below the number of hours a day has.
+     */
+    public void setTimeOfDay(int newTimeOfDay)
+    {
+        timeOfDay = Math.abs(newTimeOfDay) % maxTimeOfDay;
+    }
+
     /**
      * Increase the time by one hour.
      */
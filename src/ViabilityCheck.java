@@ -0,0 +1,16 @@
+/**
+ * Interface for objects that decide whether a simulation is
+ * still worth running.
+ *
+ * @author Flavio Melinte Citea and Vakaris Paulavičius
+ * @version 1.0
+ */
+public interface ViabilityCheck
+{
+    /**
+     * Determine whether the simulation should continue to run.
+     * @param field The field to check.
+     * @return true if the simulation is still viable.
+     */
+    boolean isViable(Field field);
+}
@@ -1,9 +1,7 @@
 /**
  * Abstract class representing weather.
- * Weather can affect living beings in different ways.
- * Weather "acts" on living beings every time it changes
- * (that is, every time the simulation changes from one
- * weather type to another).
+ * Weather affects how likely the members of each species are to breed,
+ * for as long as it lasts (see Climate).
  *
  * @author Flavio Melinte Citea and Vakaris Paulavičius
  * @version 1.0
@@ -27,11 +25,14 @@ public abstract class Weather
         return "Unknown";
     }
 
-    // ABSTRACT METHODS
-
     /**
-     * Used to act on a particular living being in the simulation.
-     * @param livingBeing A living being (animal/plant) weather acts on.
+     * Return by how much this weather multiplies the breeding probability
+     * of a species. By default weather has no effect.
+     * @param speciesClass The class of the species.
+     * @return The factor to multiply the default breeding probability by.
      */
-    abstract public void act(LivingBeing livingBeing);
+    public double getBreedingModifier(Class speciesClass)
+    {
+        return 1.0;
+    }
 }
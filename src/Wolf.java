@@ -34,10 +34,11 @@ public class Wolf extends Animal
     private static final int FOOD_VALUE = 69;
     // Handles randomization for the whole class.
     private static final Class[] EDIBLE_PREY = {Hamster.class, Deer.class};
-    // The field where wolves look for food.
-    private static Field huntingField;
     // The default color of all wolves.
     public static final Color DEFAULT_COLOR = Color.RED;
+    // The traits shared by all wolves.
+    public static final SpeciesTraits TRAITS = new SpeciesTraits(Wolf.class, BREEDING_AGE, MAX_AGE,
+            BREEDING_PROBABILITY, MAX_LITTER_SIZE, MAX_STEPS_WITHOUT_EATING, FOOD_VALUE, false, EDIBLE_PREY);
 
     /**
      * Create a new Wolf. A Wolf may be created with age
@@ -52,22 +53,13 @@ public class Wolf extends Animal
         super(randomAge, field, location);
     }
 
-    /**
-     * Set a field where Wolves look for food.
-     * field A new hunting field.
-     */
-    public static void setHuntingField(Field field)
-    {
-        huntingField = field;
-    }
-
     /**
      * Return a field where Wolves look for food.
      * @return A hunting field
      */
     public Field getHuntingField()
     {
-        return huntingField;
+        return getField().getHuntingField(Wolf.class);
     }
 
     /**
@@ -144,15 +136,6 @@ public class Wolf extends Animal
         return MAX_AGE;
     }
 
-    /**
-     * Return an array of Classes, whose instances a wolf eats.
-     * @return An array of type Class.
-     */
-    protected Class[] retrieveEdible()
-    {
-        return EDIBLE_PREY;
-    }
-
     /**
      * Returns the default color of a wolf.
      * @return default color.
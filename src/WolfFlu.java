@@ -35,6 +35,18 @@ public class WolfFlu extends Disease
         animal.setMaxAge(animal.getMaxAge() - DECREASE_LIFESPAN_BY);
     }
 
+    /**
+     * Used to act on the wolf in a cell of a world store.
+     * The lifespan never drops below the wolf's current age.
+     * @param world The world store holding the wolf.
+     * @param cell The cell of the wolf this disease acts on.
+     */
+    public void act(WorldStore world, long cell)
+    {
+        int newMaxAge = world.getMaxAge(cell) - DECREASE_LIFESPAN_BY;
+        world.setMaxAge(cell, Math.max(newMaxAge, world.getAge(cell)));
+    }
+
     /**
      * Return the infection probability of the WolfFlu.
      * @return INFECTION_PROBABILITY
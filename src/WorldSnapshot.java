@@ -0,0 +1,399 @@
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * Writes the state of a simulation to a binary file and reads it back, so
+ * that a long run can be stopped and continued later.
+ *
+ * A snapshot starts with a header: a magic number, the format version, the
+ * size of the world, the seed, the step, the time of the day, the weather and
+ * the names of the species and diseases it refers to. Then comes one record of
+ * RECORD_SIZE bytes for every living being, in the order they act. Beings
+ * that died during the last step act no more and are left out. Random
+ * numbers are drawn from streams keyed by the seed, the step and the id of
+ * each being, so those are all that is needed for a restored simulation to
+ * continue exactly as the original one would have.
+ *
+ * Snapshots are written through a FileChannel and read through a memory
+ * mapping of the file, which limits them to 2GB.
+ *
+ * @author Flavio Melinte Citea and Vakaris Paulavičius
+ * @version 1.0
+ */
+public class WorldSnapshot
+{
+    // The first bytes of every snapshot: "FSIM".
+    private static final int MAGIC = 0x4653494D;
+    // The version of the format written.
+    private static final int VERSION = 2;
+    // The number of bytes of the record of a living being.
+    private static final int RECORD_SIZE = 48;
+    // The size of the buffer records are gathered in before they are written.
+    private static final int BUFFER_SIZE = 1 << 20;
+    // The layers a living being can be in.
+    private static final byte ANIMAL_LAYER = 0;
+    private static final byte PLANT_LAYER = 1;
+    // The flags of a record.
+    private static final byte FEMALE = 1;
+
+    // The diseases of the simulation; records refer to them by index.
+    private final List<Disease> diseases;
+    // The values read from the header of the last snapshot read.
+    private long seed;
+    private int step;
+    private int timeOfDay;
+    private int weather;
+
+    /**
+     * Create a snapshot reader and writer for a simulation.
+     * @param diseases The diseases of the simulation.
+     */
+    public WorldSnapshot(List<Disease> diseases)
+    {
+        this.diseases = diseases;
+    }
+
+    /**
+     * Write the state of a simulation to a file, replacing whatever it held.
+     * @param file The file to write.
+     * @param seed The seed of the simulation.
+     * @param step The current step.
+     * @param timeOfDay The current time of the day.
+     * @param weather The index of the current weather among the types of weather.
+     * @param beings The living beings, in the order they act. Dead ones are left out.
+     * @param animalField The field of the animals; every other being is taken to be in the plant field.
+     * @throws IOException If the file cannot be written.
+     */
+    public void write(Path file, long seed, int step, int timeOfDay, int weather,
+                      List<LivingBeing> beings, Field animalField) throws IOException
+    {
+        Map<Class<? extends LivingBeing>, Integer> species = new LinkedHashMap<>();
+        int count = 0;
+        for(LivingBeing being : beings) {
+            if(being.isAlive()) {
+                species.putIfAbsent(being.getClass(), species.size());
+                count++;
+            }
+        }
+
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putInt(animalField.getDepth());
+            buffer.putInt(animalField.getWidth());
+            buffer.putLong(seed);
+            buffer.putInt(step);
+            buffer.putInt(timeOfDay);
+            buffer.putInt(weather);
+            buffer.putInt(species.size());
+            for(Class<? extends LivingBeing> speciesClass : species.keySet()) {
+                putName(buffer, speciesClass.getName());
+            }
+            buffer.putInt(diseases.size());
+            for(Disease disease : diseases) {
+                putName(buffer, disease.getClass().getName());
+            }
+            buffer.putInt(count);
+
+            for(LivingBeing being : beings) {
+                if(being.isAlive()) {
+                    if(buffer.remaining() < RECORD_SIZE) {
+                        flush(channel, buffer);
+                    }
+                    putBeing(buffer, being, species.get(being.getClass()), being.getField() == animalField);
+                }
+            }
+            flush(channel, buffer);
+        }
+    }
+
+    /**
+     * Read a snapshot into the fields of a simulation. The fields are emptied
+     * and filled with the living beings of the snapshot, once the header has
+     * been checked and the file found to hold all the records it announces.
+     * If a record turns out not to be valid, the fields are given back what
+     * they held before. The rest of the header can then be read with the getters.
+     * @param file The file to read.
+     * @param animalField The field of the animals.
+     * @param plantField The field of the plants.
+     * @return The living beings, in the order they act.
+     * @throws IOException If the file cannot be read or does not fit the simulation.
+     */
+    public List<LivingBeing> read(Path file, Field animalField, Field plantField) throws IOException
+    {
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if(channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot " + file + " is too large to be mapped");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if(buffer.getInt() != MAGIC) {
+                throw new IOException(file + " is not a world snapshot");
+            }
+            int version = buffer.getInt();
+            if(version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version);
+            }
+            int depth = buffer.getInt();
+            int width = buffer.getInt();
+            if(depth != animalField.getDepth() || width != animalField.getWidth()) {
+                throw new IOException("Snapshot of a " + depth + "x" + width + " world cannot be restored into a "
+                        + animalField.getDepth() + "x" + animalField.getWidth() + " world");
+            }
+            long newSeed = buffer.getLong();
+            int newStep = buffer.getInt();
+            int newTimeOfDay = buffer.getInt();
+            int newWeather = buffer.getInt();
+
+            List<LivingBeingFactory> factories = new ArrayList<>();
+            int speciesCount = buffer.getInt();
+            for(int index = 0; index < speciesCount; index++) {
+                String name = getName(buffer);
+                Class<? extends LivingBeing> speciesClass = SpeciesRegistry.forName(name);
+                if(speciesClass == null) {
+                    throw new IOException("Unknown species " + name);
+                }
+                factories.add(SpeciesRegistry.getFactory(speciesClass));
+            }
+            int diseaseCount = buffer.getInt();
+            for(int index = 0; index < diseaseCount; index++) {
+                String name = getName(buffer);
+                if(index >= diseases.size() || !diseases.get(index).getClass().getName().equals(name)) {
+                    throw new IOException("Unknown disease " + name);
+                }
+            }
+
+            int count = buffer.getInt();
+            if(count < 0 || (long) count * RECORD_SIZE > buffer.remaining()) {
+                throw new IOException("Snapshot " + file + " is truncated: it announces " + count
+                        + " living beings but holds " + buffer.remaining() / RECORD_SIZE);
+            }
+
+            // The fields are kept as they are, to be given back if a record is not valid.
+            Field animalsBefore = copyOf(animalField);
+            Field plantsBefore = copyOf(plantField);
+            animalField.clear();
+            plantField.clear();
+            List<LivingBeing> beings = new ArrayList<>(count);
+            try {
+                for(int index = 0; index < count; index++) {
+                    beings.add(getBeing(buffer, factories, animalField, plantField));
+                }
+            }
+            catch(IOException | RuntimeException e) {
+                animalField.copyFrom(animalsBefore, UnaryOperator.identity());
+                plantField.copyFrom(plantsBefore, UnaryOperator.identity());
+                throw e;
+            }
+
+            seed = newSeed;
+            step = newStep;
+            timeOfDay = newTimeOfDay;
+            weather = newWeather;
+            return beings;
+        }
+        catch(BufferUnderflowException e) {
+            throw new IOException("Snapshot " + file + " is truncated", e);
+        }
+    }
+
+    /**
+     * Return the seed of the last snapshot read.
+     * @return The seed.
+     */
+    public long getSeed()
+    {
+        return seed;
+    }
+
+    /**
+     * Return the step of the last snapshot read.
+     * @return The step.
+     */
+    public int getStep()
+    {
+        return step;
+    }
+
+    /**
+     * Return the time of the day of the last snapshot read.
+     * @return The time of the day.
+     */
+    public int getTimeOfDay()
+    {
+        return timeOfDay;
+    }
+
+    /**
+     * Return the weather of the last snapshot read.
+     * @return The index of the weather among the types of weather.
+     */
+    public int getWeather()
+    {
+        return weather;
+    }
+
+    // PRIVATE METHODS
+
+    /**
+     * Return a copy of a field, holding the same objects.
+     * @param field The field.
+     * @return The copy.
+     */
+    private static Field copyOf(Field field)
+    {
+        Field copy = new Field(field);
+        copy.copyFrom(field, UnaryOperator.identity());
+        return copy;
+    }
+
+    /**
+     * Write the record of a living being.
+     * @param buffer Where to write the record.
+     * @param being The living being.
+     * @param species The index of its species.
+     * @param inAnimalField true if it is in the animal field.
+     */
+    private void putBeing(ByteBuffer buffer, LivingBeing being, int species, boolean inAnimalField)
+    {
+        buffer.putLong(being.getId());
+        buffer.putShort((short) species);
+        buffer.put(inAnimalField ? ANIMAL_LAYER : PLANT_LAYER);
+        if(being instanceof Animal) {
+            Animal animal = (Animal) being;
+            buffer.put(animal.isFemale() ? FEMALE : 0);
+            buffer.putInt(being.getField().cellOf(being.getLocation()));
+            putCommon(buffer, being);
+            buffer.putInt(animal.getFoodLevel());
+            buffer.putInt(animal.getMaxFoodLevel());
+            buffer.putInt(animal.getDiseaseMask());
+        }
+        else {
+            buffer.put((byte) 0);
+            buffer.putInt(being.getField().cellOf(being.getLocation()));
+            putCommon(buffer, being);
+            buffer.putInt(0);
+            buffer.putInt(0);
+            buffer.putInt(0);
+        }
+    }
+
+    /**
+     * Write the state every living being has.
+     * @param buffer Where to write it.
+     * @param being The living being.
+     */
+    private void putCommon(ByteBuffer buffer, LivingBeing being)
+    {
+        buffer.putInt(being.getAge());
+        buffer.putInt(being.getMaxAge());
+        buffer.putInt(being.getFoodValue());
+        buffer.putDouble(being.getBaseBreedingProbability());
+    }
+
+    /**
+     * Read the record of a living being and place the being in its field.
+     * @param buffer Where to read the record from.
+     * @param factories The factories of the species, by index.
+     * @param animalField The field of the animals.
+     * @param plantField The field of the plants.
+     * @return The living being.
+     * @throws IOException If the record is not valid.
+     */
+    private LivingBeing getBeing(ByteBuffer buffer, List<LivingBeingFactory> factories,
+                                 Field animalField, Field plantField) throws IOException
+    {
+        long id = buffer.getLong();
+        int species = buffer.getShort();
+        Field field = buffer.get() == ANIMAL_LAYER ? animalField : plantField;
+        boolean female = (buffer.get() & FEMALE) != 0;
+        int cell = buffer.getInt();
+        int age = buffer.getInt();
+        int maxAge = buffer.getInt();
+        int foodValue = buffer.getInt();
+        double breedingProbability = buffer.getDouble();
+        int foodLevel = buffer.getInt();
+        int maxFoodLevel = buffer.getInt();
+        int diseaseMask = buffer.getInt();
+
+        LivingBeing being;
+        try {
+            being = factories.get(species).create(false, field, field.getLocation(cell));
+        }
+        catch(RuntimeException e) {
+            throw new IOException("Invalid record of living being " + id, e);
+        }
+        being.restoreState(id, age, maxAge, foodValue, breedingProbability);
+        if(being instanceof Animal) {
+            ((Animal) being).restoreAnimalState(foodLevel, maxFoodLevel, female, checkDiseases(diseaseMask));
+        }
+        return being;
+    }
+
+    /**
+     * Check that the diseases of an animal are all diseases of the simulation.
+     * @param diseaseMask The disease mask of the animal.
+     * @return The disease mask.
+     * @throws IOException If a disease is not one of the simulation.
+     */
+    private int checkDiseases(int diseaseMask) throws IOException
+    {
+        int unknown = diseases.size() < Integer.SIZE ? diseaseMask >>> diseases.size() : 0;
+        if(unknown != 0) {
+            throw new IOException("Unknown disease " + (diseases.size() + Integer.numberOfTrailingZeros(unknown)));
+        }
+        return diseaseMask;
+    }
+
+    /**
+     * Write a name, as its length followed by its UTF-8 bytes.
+     * @param buffer Where to write the name.
+     * @param name The name.
+     */
+    private static void putName(ByteBuffer buffer, String name)
+    {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Read a name written by putName.
+     * @param buffer Where to read the name from.
+     * @return The name.
+     */
+    private static String getName(ByteBuffer buffer)
+    {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Write out what has been gathered in a buffer and empty it.
+     * @param channel Where to write.
+     * @param buffer The buffer.
+     * @throws IOException If the channel cannot be written.
+     */
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException
+    {
+        buffer.flip();
+        while(buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
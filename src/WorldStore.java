@@ -0,0 +1,336 @@
+/**
+ * A compact store for the state of a whole forest. Instead of one object
+ * per living being, the world is kept as a set of primitive values per cell:
+ * which species lives there, its age, food level, sex and diseases, as well
+ * as the plant growing underneath.
+ *
+ * Cells are numbered row by row, so cell (row * width + col) holds the
+ * location (row, col). Cells are addressed with a long, so that stores
+ * bigger than a Java array can implement the same interface.
+ *
+ * A species code of NONE means the cell is empty. Other codes are given
+ * meaning by the engine using the store.
+ *
+ * Next to the cells, a store keeps a few engine values: numbers the engine
+ * needs to go on with the world later, such as its step. A store kept in a
+ * file keeps them in the file too.
+ *
+ * @author Flavio Melinte Citea and Vakaris Paulavičius
+ * @version 1.0
+ */
+public abstract class WorldStore
+{
+    // The species code of an empty cell.
+    public static final int NONE = 0;
+    // Flag set if the animal in a cell is female.
+    public static final int FEMALE = 1;
+    // Flag holding the parity of the last step the animal in a cell acted in.
+    public static final int ANIMAL_ACTED = 2;
+    // Flag holding the parity of the last step the plant in a cell acted in.
+    public static final int PLANT_ACTED = 4;
+    // Flag set if the animal in a cell was too old or starving when it last aged.
+    public static final int DYING = 8;
+    // The number of engine values a store keeps.
+    public static final int ENGINE_VALUES = 8;
+
+    // The depth and width of the world.
+    private final int depth, width;
+    // The engine values, for stores that do not keep them elsewhere.
+    private final long[] engineValues;
+
+    /**
+     * Create a store for a world of the given dimensions.
+     * @param depth The depth of the world.
+     * @param width The width of the world.
+     */
+    protected WorldStore(int depth, int width)
+    {
+        this.depth = depth;
+        this.width = width;
+        engineValues = new long[ENGINE_VALUES];
+    }
+
+    /**
+     * Return the depth of the world.
+     * @return The depth of the world.
+     */
+    public int getDepth()
+    {
+        return depth;
+    }
+
+    /**
+     * Return the width of the world.
+     * @return The width of the world.
+     */
+    public int getWidth()
+    {
+        return width;
+    }
+
+    /**
+     * Return the number of cells in the world.
+     * @return depth * width.
+     */
+    public long getCellCount()
+    {
+        return (long) depth * width;
+    }
+
+    /**
+     * Return the cell holding the given location.
+     * @param row The row of the location.
+     * @param col The column of the location.
+     * @return The cell index.
+     */
+    public long cellOf(int row, int col)
+    {
+        return (long) row * width + col;
+    }
+
+    /**
+     * Return the row of a cell.
+     * @param cell The cell index.
+     * @return The row of the cell.
+     */
+    public int rowOf(long cell)
+    {
+        return (int) (cell / width);
+    }
+
+    /**
+     * Return the column of a cell.
+     * @param cell The cell index.
+     * @return The column of the cell.
+     */
+    public int colOf(long cell)
+    {
+        return (int) (cell % width);
+    }
+
+    /**
+     * Return the first cell, from the given one on, that may be occupied.
+     * Stores that know where nothing lives can skip those cells; others
+     * return the given cell.
+     * @param cell The cell to start from.
+     * @return The cell, or the number of cells if there is none.
+     */
+    public long nextOccupiedCell(long cell)
+    {
+        return cell;
+    }
+
+    /**
+     * Remove the animal in a cell.
+     * @param cell The cell to clear.
+     */
+    public void clearAnimal(long cell)
+    {
+        setSpecies(cell, NONE);
+        setDiseases(cell, 0);
+    }
+
+    /**
+     * Move the animal in one cell to another. The animal previously in
+     * the destination, if any, is lost.
+     * @param from The cell the animal is in.
+     * @param to The cell the animal moves to.
+     */
+    public void moveAnimal(long from, long to)
+    {
+        if(from == to) {
+            return;
+        }
+        setSpecies(to, getSpecies(from));
+        setAge(to, getAge(from));
+        setMaxAge(to, getMaxAge(from));
+        setFoodLevel(to, getFoodLevel(from));
+        setDiseases(to, getDiseases(from));
+        // Only the animal's flags move, the plant's stay behind.
+        setFlags(to, (getFlags(to) & PLANT_ACTED) | (getFlags(from) & ~PLANT_ACTED));
+        clearAnimal(from);
+    }
+
+    /**
+     * Make every animal of the world a step older and hungrier, and set the
+     * DYING flag of the ones that are now too old or starving, clearing it
+     * for the others. Only the flags are set: the animals stay where they
+     * are, for the caller to remove. Cells without an animal are not touched.
+     */
+    public void ageAnimals()
+    {
+        long cells = getCellCount();
+        for(long cell = nextOccupiedCell(0); cell < cells; cell = nextOccupiedCell(cell + 1)) {
+            if(getSpecies(cell) != NONE) {
+                int age = getAge(cell) + 1;
+                setAge(cell, age);
+                int foodLevel = getFoodLevel(cell) - 1;
+                setFoodLevel(cell, foodLevel);
+                int flags = getFlags(cell) & ~DYING;
+                if(age > getMaxAge(cell) || foodLevel <= 0) {
+                    flags |= DYING;
+                }
+                setFlags(cell, flags);
+            }
+        }
+    }
+
+    /**
+     * Empty the whole world.
+     */
+    public void clear()
+    {
+        long cells = getCellCount();
+        for(long cell = 0; cell < cells; cell++) {
+            setSpecies(cell, NONE);
+            setDiseases(cell, 0);
+            setPlant(cell, NONE);
+            setFlags(cell, 0);
+        }
+    }
+
+    /**
+     * Tell whether the store was opened on a world kept from an earlier run,
+     * which an engine can go on with instead of starting over. Only stores
+     * kept in a file can be.
+     * @return true if the store holds a kept world.
+     */
+    public boolean isKept()
+    {
+        return false;
+    }
+
+    /**
+     * Return one of the engine values. They are 0 until set.
+     * @param index The index of the value, below ENGINE_VALUES.
+     * @return The value.
+     */
+    public long getEngineValue(int index)
+    {
+        return engineValues[index];
+    }
+
+    /**
+     * Set one of the engine values. Emptying the world leaves them as they are.
+     * @param index The index of the value, below ENGINE_VALUES.
+     * @param value The new value.
+     */
+    public void setEngineValue(int index, long value)
+    {
+        engineValues[index] = value;
+    }
+
+    // ABSTRACT METHODS
+
+    /**
+     * Return the species code of the animal in a cell.
+     * @param cell The cell index.
+     * @return The species code, or NONE if there is no animal.
+     */
+    public abstract int getSpecies(long cell);
+
+    /**
+     * Set the species code of the animal in a cell.
+     * @param cell The cell index.
+     * @param species The species code, or NONE to empty the cell.
+     */
+    public abstract void setSpecies(long cell, int species);
+
+    /**
+     * Return the age of the animal in a cell.
+     * @param cell The cell index.
+     * @return The age.
+     */
+    public abstract int getAge(long cell);
+
+    /**
+     * Set the age of the animal in a cell.
+     * @param cell The cell index.
+     * @param age The new age.
+     */
+    public abstract void setAge(long cell, int age);
+
+    /**
+     * Return the maximum age of the animal in a cell.
+     * @param cell The cell index.
+     * @return The maximum age.
+     */
+    public abstract int getMaxAge(long cell);
+
+    /**
+     * Set the maximum age of the animal in a cell.
+     * @param cell The cell index.
+     * @param maxAge The new maximum age.
+     */
+    public abstract void setMaxAge(long cell, int maxAge);
+
+    /**
+     * Return the food level of the animal in a cell.
+     * @param cell The cell index.
+     * @return The food level.
+     */
+    public abstract int getFoodLevel(long cell);
+
+    /**
+     * Set the food level of the animal in a cell.
+     * @param cell The cell index.
+     * @param foodLevel The new food level.
+     */
+    public abstract void setFoodLevel(long cell, int foodLevel);
+
+    /**
+     * Return the flags of a cell (FEMALE, ANIMAL_ACTED, PLANT_ACTED, DYING).
+     * @param cell The cell index.
+     * @return The flags.
+     */
+    public abstract int getFlags(long cell);
+
+    /**
+     * Set the flags of a cell.
+     * @param cell The cell index.
+     * @param flags The new flags.
+     */
+    public abstract void setFlags(long cell, int flags);
+
+    /**
+     * Return the diseases of the animal in a cell, one bit per disease.
+     * @param cell The cell index.
+     * @return The disease mask.
+     */
+    public abstract int getDiseases(long cell);
+
+    /**
+     * Set the diseases of the animal in a cell.
+     * @param cell The cell index.
+     * @param diseases The new disease mask.
+     */
+    public abstract void setDiseases(long cell, int diseases);
+
+    /**
+     * Return the species code of the plant in a cell.
+     * @param cell The cell index.
+     * @return The species code, or NONE if nothing grows there.
+     */
+    public abstract int getPlant(long cell);
+
+    /**
+     * Set the species code of the plant in a cell.
+     * @param cell The cell index.
+     * @param plant The species code, or NONE to empty the cell.
+     */
+    public abstract void setPlant(long cell, int plant);
+
+    /**
+     * Return the age of the plant in a cell.
+     * @param cell The cell index.
+     * @return The age.
+     */
+    public abstract int getPlantAge(long cell);
+
+    /**
+     * Set the age of the plant in a cell.
+     * @param cell The cell index.
+     * @param age The new age.
+     */
+    public abstract void setPlantAge(long cell, int age);
+}
@@ -0,0 +1,89 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the ActorList: dropping the dead and adding the newborns at the
+ * end of a step must leave the beings in the order a plain list would.
+ *
+ * @author Flavio Melinte Citea and Vakaris Paulavičius
+ * @version 1.0
+ */
+public class ActorListTest
+{
+    // The size of the field the beings live in.
+    private static final int DEPTH = 40;
+    private static final int WIDTH = 40;
+
+    @Test
+    public void keepsTheOrderOfAPlainListOverSteps()
+    {
+        Field field = new Field(DEPTH, WIDTH, new TimeTracker(0, 24, 21, 5));
+        Random rand = new Random(42);
+        ActorList<LivingBeing> actors = new ActorList<>();
+        List<LivingBeing> expected = new ArrayList<>();
+        int nextCell = 0;
+
+        for(int step = 0; step < 20; step++) {
+            // Some beings die, some are born; newborns can die before the step ends too.
+            for(LivingBeing being : actors) {
+                if(rand.nextInt(4) == 0) {
+                    being.setDead();
+                }
+            }
+            int births = rand.nextInt(60);
+            for(int birth = 0; birth < births && nextCell < DEPTH * WIDTH; birth++) {
+                Plant newborn = new Plant(false, field, field.getLocation(nextCell++));
+                actors.getNewborns().add(newborn);
+                if(rand.nextInt(10) == 0) {
+                    newborn.setDead();
+                }
+            }
+
+            // What the end of a step does, the plain way.
+            List<LivingBeing> survivors = new ArrayList<>();
+            for(LivingBeing being : expected) {
+                if(being.isAlive()) {
+                    survivors.add(being);
+                }
+            }
+            survivors.addAll(actors.getNewborns());
+            expected = survivors;
+
+            actors.removeDead();
+            actors.addNewborns();
+            assertEquals(expected, actors);
+            assertTrue(actors.getNewborns().isEmpty());
+        }
+    }
+
+    @Test
+    public void visitsEveryBeingOfTheStepWhileOthersAreBorn()
+    {
+        Field field = new Field(DEPTH, WIDTH, new TimeTracker(0, 24, 21, 5));
+        ActorList<LivingBeing> actors = new ActorList<>();
+        for(int cell = 0; cell < 10; cell++) {
+            actors.add(new Plant(false, field, field.getLocation(cell)));
+        }
+
+        int visited = 0;
+        for(int index = 0; index < actors.size(); index++) {
+            actors.get(index).setDead();
+            actors.getNewborns().add(new Plant(false, field, field.getLocation(100 + index)));
+            visited++;
+        }
+        assertEquals(10, visited);
+
+        actors.removeDead();
+        assertEquals(0, actors.size());
+        actors.addNewborns();
+        assertEquals(10, actors.size());
+        assertEquals(field.getLocation(100), actors.get(0).getLocation());
+        assertEquals(field.getLocation(109), actors.get(9).getLocation());
+    }
+}
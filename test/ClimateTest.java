@@ -0,0 +1,62 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the Climate: the breeding probabilities read through its lazy
+ * species modifiers must be those the weather gives directly, however
+ * often the weather changes.
+ *
+ * @author Flavio Melinte Citea and Vakaris Paulavičius
+ * @version 1.0
+ */
+public class ClimateTest
+{
+    @Test
+    public void modifiersAreThoseOfTheWeather()
+    {
+        Climate climate = new Climate();
+        for(Weather weather : List.of(new SunnyWeather(), new RainyWeather(), new RainyWeather(), new SunnyWeather())) {
+            climate.setWeather(weather);
+            List<SpeciesTraits> species = SpeciesRegistry.getSpecies();
+            for(int id = 0; id < species.size(); id++) {
+                assertEquals(weather.getBreedingModifier(species.get(id).getSpeciesClass()),
+                        climate.getBreedingModifier(id), weather + " on " + species.get(id).getSpeciesClass());
+            }
+        }
+    }
+
+    @Test
+    public void breedingProbabilitiesFollowTheWeatherWithoutCompounding()
+    {
+        Field field = new Field(4, 4, new TimeTracker(0, 24, 21, 5));
+        Climate climate = field.getClimate();
+        Wolf wolf = new Wolf(false, field, field.getLocation(0));
+        Plant plant = new Plant(false, field, field.getLocation(1));
+        List<LivingBeing> beings = List.of(wolf, plant);
+
+        // Several rainy spells in a row, with reads in between, then sun again.
+        List<Weather> spells = List.of(new RainyWeather(), new SunnyWeather(), new RainyWeather(),
+                new RainyWeather(), new RainyWeather(), new SunnyWeather());
+        for(Weather weather : spells) {
+            int epoch = climate.getEpoch();
+            climate.setWeather(weather);
+            assertEquals(epoch + 1, climate.getEpoch());
+            for(LivingBeing being : beings) {
+                double expected = Math.min(1.0,
+                        being.getBaseBreedingProbability() * weather.getBreedingModifier(being.getClass()));
+                assertEquals(expected, being.getBreedingProbability(), weather + " on " + being.getClass());
+                // A second read gives the same, from the cached value.
+                assertEquals(expected, being.getBreedingProbability());
+            }
+        }
+
+        // A new base probability is weathered too, without a change of weather.
+        climate.setWeather(new RainyWeather());
+        wolf.setBreedingProbability(0.4);
+        assertEquals(0.2, wolf.getBreedingProbability());
+        assertEquals(0.4, wolf.getBaseBreedingProbability());
+    }
+}
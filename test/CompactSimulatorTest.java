@@ -0,0 +1,97 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests of the CompactSimulator. The compact engine follows the rules of the
+ * Simulator but draws its random numbers differently, so the two are only
+ * compared on their starting populations; after that, each engine is only
+ * expected to repeat itself.
+ *
+ * @author Flavio Melinte Citea and Vakaris Paulavičius
+ * @version 1.0
+ */
+public class CompactSimulatorTest
+{
+    // The size of the worlds simulated.
+    private static final int DEPTH = 300;
+    private static final int WIDTH = 300;
+    // The seed of the simulations.
+    private static final long SEED = 42;
+    // The animal species of both engines.
+    private static final Class[] SPECIES = {Lynx.class, Wolf.class, Deer.class, Hamster.class};
+
+    @Test
+    public void startsWithThePopulationsOfTheSimulator()
+    {
+        Simulator simulator = new Simulator(DEPTH, WIDTH, true, SEED);
+        CompactSimulator compact = new CompactSimulator(new ArrayWorldStore(DEPTH, WIDTH), SEED);
+        for(Class species : SPECIES) {
+            int expected = simulator.getAnimalField().getCount(species);
+            // A tenth of the population is more than three standard deviations of the difference.
+            assertEquals(expected, compact.getPopulation(species), expected / 10.0, species.getName());
+        }
+    }
+
+    @Test
+    public void repeatsItselfForTheSameSeed()
+    {
+        CompactSimulator first = new CompactSimulator(new ArrayWorldStore(DEPTH, WIDTH), SEED);
+        CompactSimulator second = new CompactSimulator(new ArrayWorldStore(DEPTH, WIDTH), SEED);
+        first.simulate(50);
+        second.simulate(50);
+        assertEquals(first.getStep(), second.getStep());
+        assertEquals(hash(first.getWorld()), hash(second.getWorld()));
+    }
+
+    @Test
+    public void resumesAWorldKeptInAFile(@TempDir Path directory) throws IOException
+    {
+        Path file = directory.resolve("world.bin");
+        OffHeapWorldStore kept = new OffHeapWorldStore(DEPTH, WIDTH, file);
+        assertFalse(kept.isKept());
+        new CompactSimulator(kept, SEED).simulate(25);
+        kept.force();
+
+        OffHeapWorldStore reopened = new OffHeapWorldStore(DEPTH, WIDTH, file);
+        assertTrue(reopened.isKept());
+        CompactSimulator resumed = CompactSimulator.resume(reopened);
+        assertEquals(25, resumed.getStep());
+        resumed.simulate(25);
+
+        CompactSimulator uninterrupted = new CompactSimulator(new ArrayWorldStore(DEPTH, WIDTH), SEED);
+        uninterrupted.simulate(50);
+        assertEquals(uninterrupted.getPopulationDetails(), resumed.getPopulationDetails());
+        assertEquals(hash(uninterrupted.getWorld()), hash(resumed.getWorld()));
+    }
+
+    /**
+     * Return a hash of every value of every cell of a world.
+     * @param world The world.
+     * @return The hash.
+     */
+    static long hash(WorldStore world)
+    {
+        long hash = 0;
+        for(long cell = 0; cell < world.getCellCount(); cell++) {
+            hash = hash * 31 + world.getSpecies(cell);
+            if(world.getSpecies(cell) != WorldStore.NONE) {
+                hash = hash * 31 + world.getAge(cell);
+                hash = hash * 31 + world.getFoodLevel(cell);
+                hash = hash * 31 + world.getDiseases(cell);
+                hash = hash * 31 + (world.getFlags(cell) & WorldStore.FEMALE);
+            }
+            hash = hash * 31 + world.getPlant(cell);
+            if(world.getPlant(cell) != WorldStore.NONE) {
+                hash = hash * 31 + world.getPlantAge(cell);
+            }
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,65 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the EnsembleRunner.
+ *
+ * @author Flavio Melinte Citea and Vakaris Paulavičius
+ * @version 1.0
+ */
+public class EnsembleRunnerTest
+{
+    // The seed of the ensembles.
+    private static final long SEED = 42;
+    // The number of runs of an ensemble.
+    private static final int RUNS = 4;
+
+    @Test
+    public void givesTheSameResultOnAnyNumberOfThreads()
+    {
+        EnsembleRunner runner = createRunner();
+        runner.setThreads(1);
+        String sequential = runner.run(SEED, RUNS).toString();
+        runner.setThreads(3);
+        assertEquals(sequential, runner.run(SEED, RUNS).toString());
+    }
+
+    @Test
+    public void repeatsARunForTheSameSeed()
+    {
+        EnsembleRunner runner = createRunner();
+        RunSummary first = runner.runOne(0, SEED);
+        RunSummary second = runner.runOne(0, SEED);
+        assertEquals(first.getExtinctionStep(), second.getExtinctionStep());
+        assertEquals(first.getSampleCount(), second.getSampleCount());
+        for(int species = 0; species < runner.getSpecies().size(); species++) {
+            assertArrayEquals(populations(first, species), populations(second, species));
+        }
+    }
+
+    /**
+     * Create a runner of small, short runs.
+     * @return The runner.
+     */
+    private static EnsembleRunner createRunner()
+    {
+        return new EnsembleRunner(40, 60, 100, 10);
+    }
+
+    /**
+     * Return the population samples of a species in a run.
+     * @param summary The summary of the run.
+     * @param species The index of the species.
+     * @return The samples.
+     */
+    private static int[] populations(RunSummary summary, int species)
+    {
+        int[] samples = new int[summary.getSampleCount()];
+        for(int sample = 0; sample < samples.length; sample++) {
+            samples[sample] = summary.getPopulation(species, sample);
+        }
+        return samples;
+    }
+}
@@ -0,0 +1,81 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the population counts a Field keeps as objects are placed and
+ * cleared.
+ *
+ * @author Flavio Melinte Citea and Vakaris Paulavičius
+ * @version 1.0
+ */
+public class FieldTest
+{
+    @Test
+    public void countsEqualARescanAfterSeededSteps()
+    {
+        Simulator simulator = new Simulator(120, 160, true, 42);
+        simulator.setViabilityCheck(null);
+        simulator.setThreads(4);
+        simulator.simulate(40);
+        simulator.setThreads(1);
+
+        assertCountsMatchRescan(simulator.getAnimalField());
+        assertCountsMatchRescan(simulator.getPlantField());
+    }
+
+    @Test
+    public void countsFollowPlacingReplacingAndClearing()
+    {
+        Field field = new Field(4, 4, new TimeTracker(0, 24, 21, 5));
+        Wolf wolf = new Wolf(false, field, field.getLocation(0));
+        Deer deer = new Deer(false, field, field.getLocation(1));
+        assertEquals(1, field.getCount(Wolf.class));
+        assertEquals(1, field.getCount(Deer.class));
+
+        // Placing the same object again changes nothing.
+        field.place(wolf, 0);
+        assertEquals(1, field.getCount(Wolf.class));
+
+        // Moving onto an object replaces it.
+        field.clear(0);
+        field.place(wolf, 1);
+        assertEquals(1, field.getCount(Wolf.class));
+        assertEquals(0, field.getCount(Deer.class));
+
+        field.clear(5);
+        field.clear(1);
+        assertEquals(0, field.getCount(Wolf.class));
+        assertCountsMatchRescan(field);
+
+        field.place(deer, 2);
+        field.clear();
+        assertEquals(0, field.getCount(Deer.class));
+        assertCountsMatchRescan(field);
+    }
+
+    /**
+     * Check that the counts of a field are those of a full scan of its cells.
+     * @param field The field.
+     */
+    private static void assertCountsMatchRescan(Field field)
+    {
+        Map<Class, Integer> scanned = new HashMap<>();
+        for(int cell = 0; cell < field.getDepth() * field.getWidth(); cell++) {
+            Object object = field.getObjectAt(cell);
+            if(object != null) {
+                scanned.merge(object.getClass(), 1, Integer::sum);
+            }
+        }
+        Set<Class> classes = new HashSet<>(field.getCountedClasses());
+        classes.addAll(scanned.keySet());
+        for(Class type : classes) {
+            assertEquals(scanned.getOrDefault(type, 0).intValue(), field.getCount(type), type.getName());
+        }
+    }
+}
@@ -0,0 +1,63 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the FoodWeb: its bits must say what the diets of the species say.
+ *
+ * @author Flavio Melinte Citea and Vakaris Paulavičius
+ * @version 1.0
+ */
+public class FoodWebTest
+{
+    @Test
+    public void agreesWithTheDietsOfTheForest()
+    {
+        Map<Class, Set<Class>> diets = Map.of(
+                Lynx.class, Set.of(Hamster.class, Deer.class),
+                Wolf.class, Set.of(Hamster.class, Deer.class),
+                Deer.class, Set.of(Plant.class),
+                Hamster.class, Set.of(Plant.class),
+                Plant.class, Set.of());
+        FoodWeb foodWeb = SpeciesRegistry.getFoodWeb();
+        for(Class predator : diets.keySet()) {
+            for(Class prey : diets.keySet()) {
+                boolean eats = foodWeb.canEat(SpeciesRegistry.getId(predator), SpeciesRegistry.getId(prey));
+                assertEquals(diets.get(predator).contains(prey), eats,
+                        predator.getName() + " eating " + prey.getName());
+            }
+        }
+    }
+
+    @Test
+    public void agreesWithDietsSpanningSeveralWords()
+    {
+        // Distinct classes for the species: int[], int[][], and so on.
+        int count = 130;
+        Class[] classes = new Class[count];
+        classes[0] = int[].class;
+        for(int species = 1; species < count; species++) {
+            classes[species] = classes[species - 1].arrayType();
+        }
+        // Every species eats the next one, and the one 64 further on.
+        List<SpeciesTraits> traits = new ArrayList<>();
+        for(int species = 0; species < count; species++) {
+            Class[] edible = {classes[(species + 1) % count], classes[(species + 64) % count]};
+            traits.add(new SpeciesTraits(classes[species], 0, 10, 0.1, 1, 10, 1, false, edible));
+        }
+
+        FoodWeb foodWeb = new FoodWeb(traits);
+        assertEquals(count, foodWeb.getSpeciesCount());
+        for(int predator = 0; predator < count; predator++) {
+            for(int prey = 0; prey < count; prey++) {
+                boolean eats = prey == (predator + 1) % count || prey == (predator + 64) % count;
+                assertEquals(eats, foodWeb.canEat(predator, prey), predator + " eating " + prey);
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the PlantAutomaton: the bitwise counts of neighbouring plants
+ * must be those of a plain count, on both sides of every word, and plants
+ * must be eaten and die of old age one cell at a time.
+ *
+ * @author Flavio Melinte Citea and Vakaris Paulavičius
+ * @version 1.0
+ */
+public class PlantAutomatonTest
+{
+    // Widths of one word, a word and a bit, and more than two words.
+    private static final int[] WIDTHS = {1, 63, 64, 65, 130};
+    // The depth of the layers tested.
+    private static final int DEPTH = 5;
+
+    @Test
+    public void countsNeighboursLikeAPlainCount()
+    {
+        for(int width : WIDTHS) {
+            for(double probability : new double[] {0.3, 0.7, 1.0}) {
+                PlantAutomaton plants = new PlantAutomaton(DEPTH, width, Plant.TRAITS);
+                plants.populate(42, width, probability);
+                for(int cell = 0; cell < DEPTH * width; cell++) {
+                    assertEquals(plainCount(plants, width, cell), plants.countNeighbours(cell),
+                            "cell " + cell + " of width " + width);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void eatsOnlyThePlantOfTheCell()
+    {
+        for(int width : WIDTHS) {
+            PlantAutomaton plants = new PlantAutomaton(DEPTH, width, Plant.TRAITS);
+            plants.populate(42, width, 1.0);
+            int count = DEPTH * width;
+            assertEquals(count, plants.getCount());
+            // Eat the plants on the edges of the words.
+            for(int cell = 0; cell < DEPTH * width; cell++) {
+                int col = cell % width;
+                if(col % 64 == 0 || col % 64 == 63 || col == width - 1) {
+                    assertEquals(Plant.TRAITS.getFoodValue(), plants.eat(cell), "cell " + cell);
+                    assertFalse(plants.hasPlant(cell));
+                    assertEquals(0, plants.eat(cell));
+                    count--;
+                }
+            }
+            assertEquals(count, plants.getCount());
+            for(int cell = 0; cell < DEPTH * width; cell++) {
+                int col = cell % width;
+                boolean edge = col % 64 == 0 || col % 64 == 63 || col == width - 1;
+                assertEquals(!edge, plants.hasPlant(cell), "cell " + cell);
+                assertEquals(plainCount(plants, width, cell), plants.countNeighbours(cell));
+            }
+        }
+    }
+
+    @Test
+    public void plantsOfTheLargestMaximumAgeDie()
+    {
+        SpeciesTraits traits = new SpeciesTraits(Plant.class, Byte.MAX_VALUE, 0.0, 1);
+        PlantAutomaton plants = new PlantAutomaton(20, 130, traits);
+        plants.populate(42, 0, 1.0);
+        int newborns = 0;
+        for(int cell = 0; cell < 20 * 130; cell++) {
+            if(plants.getAge(cell) == 0) {
+                newborns++;
+            }
+        }
+        assertTrue(newborns > 0);
+
+        for(int step = 0; step < Byte.MAX_VALUE; step++) {
+            plants.step(step, 0.0);
+        }
+        // Only the plants born at age 0 are left, at the maximum age.
+        assertEquals(newborns, plants.getCount());
+        for(int cell = 0; cell < 20 * 130; cell++) {
+            assertTrue(plants.getAge(cell) == -1 || plants.getAge(cell) == Byte.MAX_VALUE);
+        }
+        plants.step(Byte.MAX_VALUE, 0.0);
+        assertEquals(0, plants.getCount());
+    }
+
+    /**
+     * Count the plants around a cell one neighbour at a time.
+     * @param plants The plants.
+     * @param width The width of the layer.
+     * @param cell The cell.
+     * @return The number of neighbouring cells where a plant grows.
+     */
+    private static int plainCount(PlantAutomaton plants, int width, int cell)
+    {
+        int row = cell / width;
+        int col = cell % width;
+        int count = 0;
+        for(int r = row - 1; r <= row + 1; r++) {
+            for(int c = col - 1; c <= col + 1; c++) {
+                if((r != row || c != col) && r >= 0 && r < DEPTH && c >= 0 && c < width
+                        && plants.hasPlant(r * width + c)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}
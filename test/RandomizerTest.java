@@ -0,0 +1,64 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the Randomizer's geometric skips, by which random infections
+ * are drawn.
+ *
+ * @author Flavio Melinte Citea and Vakaris Paulavičius
+ * @version 1.0
+ */
+public class RandomizerTest
+{
+    // The number of trials drawn.
+    private static final long TRIALS = 2_000_000;
+    // The probability that a trial succeeds, that of a random infection.
+    private static final double PROBABILITY = new WolfFlu().getRandomInfectionProbability();
+
+    @Test
+    public void hitsTrialsWithTheirProbability()
+    {
+        Random rand = new StreamRandom(42);
+        long hits = 0;
+        long trial = -1;
+        while(true) {
+            long skip = Randomizer.geometricSkip(rand, PROBABILITY);
+            if(skip >= TRIALS - trial - 1) {
+                break;
+            }
+            trial += skip + 1;
+            hits++;
+        }
+        double expected = TRIALS * PROBABILITY;
+        // Five standard deviations of the number of hits.
+        double tolerance = 5 * Math.sqrt(expected * (1 - PROBABILITY));
+        assertEquals(expected, hits, tolerance);
+    }
+
+    @Test
+    public void hitsTheNextTrialWithItsProbability()
+    {
+        Random rand = new StreamRandom(42);
+        int draws = 1_000_000;
+        double probability = 0.3;
+        int next = 0;
+        for(int draw = 0; draw < draws; draw++) {
+            if(Randomizer.geometricSkip(rand, probability) == 0) {
+                next++;
+            }
+        }
+        double expected = draws * probability;
+        assertEquals(expected, next, 5 * Math.sqrt(expected * (1 - probability)));
+    }
+
+    @Test
+    public void skipsNothingOrEverythingAtTheExtremes()
+    {
+        Random rand = new StreamRandom(42);
+        assertEquals(0, Randomizer.geometricSkip(rand, 1));
+        assertEquals(Long.MAX_VALUE, Randomizer.geometricSkip(rand, 0));
+    }
+}
@@ -0,0 +1,95 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the Simulator.
+ *
+ * @author Flavio Melinte Citea and Vakaris Paulavičius
+ * @version 1.0
+ */
+public class SimulatorTest
+{
+    // The size of the worlds simulated.
+    private static final int DEPTH = 120;
+    private static final int WIDTH = 160;
+    // The seed of the simulations.
+    private static final long SEED = 42;
+    // The number of steps simulated.
+    private static final int STEPS = 40;
+
+    @Test
+    public void takesTheSameCourseOnAnyNumberOfThreads()
+    {
+        long expected = run(1);
+        assertEquals(expected, run(2));
+        assertEquals(expected, run(4));
+    }
+
+    @Test
+    public void stopsAtTheSameStepWhenPipelined()
+    {
+        Simulator simulator = new Simulator(20, 20, true, SEED);
+        simulator.simulate(2000);
+        assertTrue(simulator.getStep() < 2000);
+
+        Simulator pipelined = new Simulator(20, 20, true, SEED);
+        pipelined.setPipelined(true);
+        AtomicBoolean onlyAppearances = new AtomicBoolean(true);
+        pipelined.addObserver((step, time, weather, field) -> {
+            for(int cell = 0; cell < field.getDepth() * field.getWidth(); cell++) {
+                Object object = field.getObjectAt(cell);
+                if(object != null && !(object instanceof Appearance)) {
+                    onlyAppearances.set(false);
+                }
+            }
+        });
+        pipelined.simulate(2000);
+        assertEquals(simulator.getStep(), pipelined.getStep());
+        assertTrue(onlyAppearances.get());
+    }
+
+    /**
+     * Run a seeded simulation on some threads.
+     * @param threads The number of threads.
+     * @return A hash of the world at the end of the run.
+     */
+    private static long run(int threads)
+    {
+        Simulator simulator = new Simulator(DEPTH, WIDTH, true, SEED);
+        simulator.setViabilityCheck(null);
+        simulator.setThreads(threads);
+        simulator.simulate(STEPS);
+        simulator.setThreads(1);
+        return hash(simulator);
+    }
+
+    /**
+     * Return a hash of the living beings in every cell of a simulation.
+     * @param simulator The simulation.
+     * @return The hash.
+     */
+    static long hash(Simulator simulator)
+    {
+        long hash = simulator.getStep();
+        for(Field field : new Field[] {simulator.getAnimalField(), simulator.getPlantField()}) {
+            for(int cell = 0; cell < field.getDepth() * field.getWidth(); cell++) {
+                Object object = field.getObjectAt(cell);
+                if(object instanceof Animal) {
+                    Animal animal = (Animal) object;
+                    hash = hash * 31 + animal.getId();
+                    hash = hash * 31 + animal.getAge();
+                    hash = hash * 31 + animal.getFoodLevel();
+                    hash = hash * 31 + animal.getDiseaseMask();
+                }
+                else {
+                    hash = hash * 31 + (object == null ? 0 : ((LivingBeing) object).getId());
+                }
+            }
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,119 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests of WorldSnapshot.
+ *
+ * @author Flavio Melinte Citea and Vakaris Paulavičius
+ * @version 1.0
+ */
+public class WorldSnapshotTest
+{
+    @Test
+    public void continuesARestoredSimulationExactly(@TempDir Path directory) throws IOException
+    {
+        Path file = directory.resolve("simulation.snapshot");
+        Simulator original = new Simulator(60, 80, true, 42);
+        original.setViabilityCheck(null);
+        original.simulate(20);
+        original.checkpoint(file);
+        original.simulate(20);
+
+        Simulator restored = new Simulator(60, 80, true, 7);
+        restored.setViabilityCheck(null);
+        restored.restore(file);
+        assertEquals(20, restored.getStep());
+        restored.simulate(20);
+
+        assertEquals(SimulatorTest.hash(original), SimulatorTest.hash(restored));
+    }
+
+    @Test
+    public void keepsTheSimulationWhenAFileIsTruncated(@TempDir Path directory) throws IOException
+    {
+        Path file = directory.resolve("simulation.snapshot");
+        Simulator simulator = new Simulator(60, 80, true, 42);
+        simulator.setViabilityCheck(null);
+        simulator.simulate(20);
+        simulator.checkpoint(file);
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 10);
+        }
+
+        assertKeptOnFailedRestore(simulator, file);
+    }
+
+    @Test
+    public void keepsTheSimulationWhenARecordIsNotValid(@TempDir Path directory) throws IOException
+    {
+        Path file = directory.resolve("simulation.snapshot");
+        Simulator simulator = new Simulator(60, 80, true, 42);
+        simulator.setViabilityCheck(null);
+        simulator.simulate(20);
+        simulator.checkpoint(file);
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            // The species of the last record, after its id, is one the snapshot does not name.
+            ByteBuffer species = ByteBuffer.allocate(Short.BYTES).putShort(0, Short.MAX_VALUE);
+            channel.write(species, channel.size() - 48 + Long.BYTES);
+        }
+
+        assertKeptOnFailedRestore(simulator, file);
+    }
+
+    @Test
+    public void restoresDiseasesOfEveryIndex(@TempDir Path directory) throws IOException
+    {
+        Field animalField = new Field(10, 10, new TimeTracker(0, 24, 21, 5));
+        Field plantField = new Field(animalField);
+        List<Disease> diseases = new ArrayList<>();
+        for(int index = 0; index < Field.MAX_DISEASES; index++) {
+            diseases.add(new AnimalFlu());
+        }
+        animalField.setDiseases(diseases);
+
+        Wolf wolf = new Wolf(false, animalField, animalField.getLocation(0));
+        wolf.infectWith(3);
+        wolf.infectWith(17);
+        wolf.infectWith(Field.MAX_DISEASES - 1);
+        List<LivingBeing> beings = new ArrayList<>();
+        beings.add(wolf);
+
+        Path file = directory.resolve("world.snapshot");
+        WorldSnapshot snapshot = new WorldSnapshot(diseases);
+        snapshot.write(file, 1, 0, 0, 0, beings, animalField);
+        List<LivingBeing> restored = snapshot.read(file, animalField, plantField);
+
+        assertEquals(1, restored.size());
+        assertEquals(wolf.getDiseaseMask(), ((Animal) restored.get(0)).getDiseaseMask());
+    }
+
+    /**
+     * Check that restoring a simulation from a file that is not valid fails,
+     * and leaves the simulation to go on as if nothing had been tried.
+     * @param simulator The simulation, seeded with 42 on a 60x80 field and run for 20 steps.
+     * @param file The file that is not valid.
+     */
+    private static void assertKeptOnFailedRestore(Simulator simulator, Path file)
+    {
+        Simulator twin = new Simulator(60, 80, true, 42);
+        twin.setViabilityCheck(null);
+        twin.simulate(20);
+
+        assertThrows(IOException.class, () -> simulator.restore(file));
+        assertEquals(SimulatorTest.hash(twin), SimulatorTest.hash(simulator));
+        simulator.simulate(10);
+        twin.simulate(10);
+        assertEquals(SimulatorTest.hash(twin), SimulatorTest.hash(simulator));
+    }
+}
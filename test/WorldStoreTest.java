@@ -0,0 +1,93 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the world stores: the array, off-heap and chunked stores must
+ * hold the same world when they are given the same values.
+ *
+ * @author Flavio Melinte Citea and Vakaris Paulavičius
+ * @version 1.0
+ */
+public class WorldStoreTest
+{
+    // The size of the worlds simulated.
+    private static final int DEPTH = 150;
+    private static final int WIDTH = 200;
+    // The seed of the simulations.
+    private static final long SEED = 42;
+
+    @Test
+    public void everyStoreTakesTheSameCourse()
+    {
+        CompactSimulator array = new CompactSimulator(new ArrayWorldStore(DEPTH, WIDTH), SEED);
+        CompactSimulator offHeap = new CompactSimulator(new OffHeapWorldStore(DEPTH, WIDTH), SEED);
+        CompactSimulator chunked = new CompactSimulator(new ChunkedWorldStore(DEPTH, WIDTH), SEED);
+        array.simulate(40);
+        offHeap.simulate(40);
+        chunked.simulate(40);
+
+        long expected = CompactSimulatorTest.hash(array.getWorld());
+        assertEquals(expected, CompactSimulatorTest.hash(offHeap.getWorld()));
+        assertEquals(expected, CompactSimulatorTest.hash(chunked.getWorld()));
+        assertEquals(array.getPopulationDetails(), chunked.getPopulationDetails());
+    }
+
+    @Test
+    public void everyStoreHoldsTheSameValues()
+    {
+        WorldStore[] stores = {
+            new ArrayWorldStore(DEPTH, WIDTH), new OffHeapWorldStore(DEPTH, WIDTH), new ChunkedWorldStore(DEPTH, WIDTH)
+        };
+        for(WorldStore store : stores) {
+            store.clear();
+            long cell = store.cellOf(DEPTH - 1, WIDTH - 1);
+            store.setSpecies(cell, 3);
+            store.setAge(cell, 1000);
+            store.setMaxAge(cell, 2000);
+            store.setFoodLevel(cell, -5);
+            store.setFlags(cell, WorldStore.FEMALE | WorldStore.ANIMAL_ACTED);
+            store.setDiseases(cell, 0b101);
+            store.moveAnimal(cell, store.cellOf(0, 1));
+            store.setPlant(store.cellOf(0, 1), 1);
+            store.setPlantAge(store.cellOf(0, 1), 7);
+        }
+        long expected = CompactSimulatorTest.hash(stores[0]);
+        for(WorldStore store : stores) {
+            assertEquals(expected, CompactSimulatorTest.hash(store), store.getClass().getName());
+        }
+    }
+
+    @Test
+    public void everyStoreKeepsWholeDiseaseMasks()
+    {
+        int mask = (1 << 31) | (1 << 20) | (1 << 8) | 1;
+        WorldStore[] stores = {
+            new ArrayWorldStore(DEPTH, WIDTH), new OffHeapWorldStore(DEPTH, WIDTH), new ChunkedWorldStore(DEPTH, WIDTH)
+        };
+        for(WorldStore store : stores) {
+            long cell = store.cellOf(DEPTH / 2, WIDTH / 2);
+            long to = store.cellOf(DEPTH / 2, WIDTH / 2 + 1);
+            store.setSpecies(cell, 2);
+            store.setDiseases(cell, mask);
+            store.moveAnimal(cell, to);
+            assertEquals(mask, store.getDiseases(to), store.getClass().getName());
+            assertEquals(0, store.getDiseases(cell), store.getClass().getName());
+        }
+    }
+
+    @Test
+    public void chunkedStoreOnlyKeepsOccupiedChunks()
+    {
+        ChunkedWorldStore store = new ChunkedWorldStore(DEPTH, WIDTH);
+        long cell = store.cellOf(DEPTH / 2, WIDTH / 2);
+        store.setSpecies(cell, 1);
+        assertEquals(1, store.getChunkCount());
+        assertEquals(cell, store.nextOccupiedCell(0));
+
+        store.clearAnimal(cell);
+        assertEquals(0, store.getChunkCount());
+        assertEquals(store.getCellCount(), store.nextOccupiedCell(0));
+        assertEquals(0, store.getAge(cell));
+    }
+}